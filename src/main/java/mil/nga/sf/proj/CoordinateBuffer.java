@@ -0,0 +1,372 @@
+package mil.nga.sf.proj;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import mil.nga.sf.LineString;
+import mil.nga.sf.Point;
+import mil.nga.sf.Polygon;
+import mil.nga.sf.util.SFException;
+
+/**
+ * Coordinate Buffer, a fixed size sequence of coordinates stored off heap in
+ * a direct byte buffer. Coordinates are interleaved as x, y, then z and m when
+ * present. Missing z and m values are stored as NaN.
+ *
+ * Intended for geometries with too many vertices to hold as {@link Point}
+ * objects, which a {@link GeometryTransform} can project in place or into
+ * another coordinate buffer without heap use growing with the vertex count.
+ *
+ * @author osbornb
+ * @since 4.3.3
+ */
+public class CoordinateBuffer {
+
+	/**
+	 * Max number of double values a buffer can hold
+	 */
+	public static final int MAX_VALUES = Integer.MAX_VALUE / Double.BYTES;
+
+	/**
+	 * Byte buffer
+	 */
+	private final ByteBuffer buffer;
+
+	/**
+	 * Double view of the byte buffer
+	 */
+	private final DoubleBuffer values;
+
+	/**
+	 * Number of coordinates
+	 */
+	private final int size;
+
+	/**
+	 * Has z values
+	 */
+	private final boolean hasZ;
+
+	/**
+	 * Has m values
+	 */
+	private final boolean hasM;
+
+	/**
+	 * Number of values per coordinate
+	 */
+	private final int dimension;
+
+	/**
+	 * Offset of m values within a coordinate
+	 */
+	private final int mOffset;
+
+	/**
+	 * Allocate a coordinate buffer
+	 *
+	 * @param size
+	 *            number of coordinates
+	 * @param hasZ
+	 *            has z values
+	 * @param hasM
+	 *            has m values
+	 * @return coordinate buffer
+	 */
+	public static CoordinateBuffer allocate(int size, boolean hasZ,
+			boolean hasM) {
+		return new CoordinateBuffer(size, hasZ, hasM);
+	}
+
+	/**
+	 * Create a coordinate buffer from the line string points
+	 *
+	 * @param lineString
+	 *            line string
+	 * @return coordinate buffer
+	 */
+	public static CoordinateBuffer create(LineString lineString) {
+		return create(lineString.getPoints(), lineString.hasZ(),
+				lineString.hasM());
+	}
+
+	/**
+	 * Create a coordinate buffer from the points
+	 *
+	 * @param points
+	 *            points
+	 * @param hasZ
+	 *            has z values
+	 * @param hasM
+	 *            has m values
+	 * @return coordinate buffer
+	 */
+	public static CoordinateBuffer create(List<Point> points, boolean hasZ,
+			boolean hasM) {
+		CoordinateBuffer buffer = new CoordinateBuffer(points.size(), hasZ,
+				hasM);
+		int index = 0;
+		for (Point point : points) {
+			buffer.setX(index, point.getX());
+			buffer.setY(index, point.getY());
+			if (hasZ) {
+				Double z = point.getZ();
+				buffer.setZ(index, z != null ? z : Double.NaN);
+			}
+			if (hasM) {
+				Double m = point.getM();
+				buffer.setM(index, m != null ? m : Double.NaN);
+			}
+			index++;
+		}
+		return buffer;
+	}
+
+	/**
+	 * Create coordinate buffers from the polygon rings
+	 *
+	 * @param polygon
+	 *            polygon
+	 * @return coordinate buffer per ring
+	 */
+	public static List<CoordinateBuffer> create(Polygon polygon) {
+		List<CoordinateBuffer> rings = new ArrayList<>(polygon.numRings());
+		for (LineString ring : polygon.getRings()) {
+			rings.add(create(ring));
+		}
+		return rings;
+	}
+
+	/**
+	 * Create a polygon from coordinate buffer rings
+	 *
+	 * @param rings
+	 *            coordinate buffer per ring
+	 * @return polygon
+	 */
+	public static Polygon toPolygon(List<CoordinateBuffer> rings) {
+		boolean hasZ = false;
+		boolean hasM = false;
+		for (CoordinateBuffer ring : rings) {
+			hasZ = hasZ || ring.hasZ();
+			hasM = hasM || ring.hasM();
+		}
+		Polygon polygon = new Polygon(hasZ, hasM);
+		for (CoordinateBuffer ring : rings) {
+			polygon.addRing(ring.toLineString());
+		}
+		return polygon;
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param size
+	 *            number of coordinates
+	 * @param hasZ
+	 *            has z values
+	 * @param hasM
+	 *            has m values
+	 */
+	public CoordinateBuffer(int size, boolean hasZ, boolean hasM) {
+		if (size < 0) {
+			throw new SFException(
+					"Coordinate buffer size can not be negative: " + size);
+		}
+		this.size = size;
+		this.hasZ = hasZ;
+		this.hasM = hasM;
+		dimension = 2 + (hasZ ? 1 : 0) + (hasM ? 1 : 0);
+		mOffset = hasZ ? 3 : 2;
+		if ((long) size * dimension > MAX_VALUES) {
+			throw new SFException("Coordinate buffer size of " + size
+					+ " exceeds the max of " + (MAX_VALUES / dimension)
+					+ " coordinates with dimension " + dimension);
+		}
+		buffer = ByteBuffer.allocateDirect(size * dimension * Double.BYTES)
+				.order(ByteOrder.nativeOrder());
+		values = buffer.asDoubleBuffer();
+	}
+
+	/**
+	 * Get the number of coordinates
+	 *
+	 * @return size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Has z values
+	 *
+	 * @return true if has z
+	 */
+	public boolean hasZ() {
+		return hasZ;
+	}
+
+	/**
+	 * Has m values
+	 *
+	 * @return true if has m
+	 */
+	public boolean hasM() {
+		return hasM;
+	}
+
+	/**
+	 * Get the number of values per coordinate
+	 *
+	 * @return dimension
+	 */
+	public int getDimension() {
+		return dimension;
+	}
+
+	/**
+	 * Get the underlying direct byte buffer in native byte order
+	 *
+	 * @return byte buffer
+	 */
+	public ByteBuffer getBuffer() {
+		return buffer;
+	}
+
+	/**
+	 * Get the x coordinate
+	 *
+	 * @param index
+	 *            coordinate index
+	 * @return x
+	 */
+	public double getX(int index) {
+		return values.get(index * dimension);
+	}
+
+	/**
+	 * Set the x coordinate
+	 *
+	 * @param index
+	 *            coordinate index
+	 * @param x
+	 *            x
+	 */
+	public void setX(int index, double x) {
+		values.put(index * dimension, x);
+	}
+
+	/**
+	 * Get the y coordinate
+	 *
+	 * @param index
+	 *            coordinate index
+	 * @return y
+	 */
+	public double getY(int index) {
+		return values.get(index * dimension + 1);
+	}
+
+	/**
+	 * Set the y coordinate
+	 *
+	 * @param index
+	 *            coordinate index
+	 * @param y
+	 *            y
+	 */
+	public void setY(int index, double y) {
+		values.put(index * dimension + 1, y);
+	}
+
+	/**
+	 * Get the z coordinate
+	 *
+	 * @param index
+	 *            coordinate index
+	 * @return z, NaN when missing or without z values
+	 */
+	public double getZ(int index) {
+		return hasZ ? values.get(index * dimension + 2) : Double.NaN;
+	}
+
+	/**
+	 * Set the z coordinate
+	 *
+	 * @param index
+	 *            coordinate index
+	 * @param z
+	 *            z
+	 */
+	public void setZ(int index, double z) {
+		if (!hasZ) {
+			throw new SFException("Coordinate buffer does not have z values");
+		}
+		values.put(index * dimension + 2, z);
+	}
+
+	/**
+	 * Get the m value
+	 *
+	 * @param index
+	 *            coordinate index
+	 * @return m, NaN when missing or without m values
+	 */
+	public double getM(int index) {
+		return hasM ? values.get(index * dimension + mOffset) : Double.NaN;
+	}
+
+	/**
+	 * Set the m value
+	 *
+	 * @param index
+	 *            coordinate index
+	 * @param m
+	 *            m
+	 */
+	public void setM(int index, double m) {
+		if (!hasM) {
+			throw new SFException("Coordinate buffer does not have m values");
+		}
+		values.put(index * dimension + mOffset, m);
+	}
+
+	/**
+	 * Get the coordinate as a point
+	 *
+	 * @param index
+	 *            coordinate index
+	 * @return point
+	 */
+	public Point getPoint(int index) {
+		Point point = new Point(hasZ, hasM, getX(index), getY(index));
+		if (hasZ) {
+			double z = getZ(index);
+			point.setZ(Double.isNaN(z) ? null : z);
+		}
+		if (hasM) {
+			double m = getM(index);
+			point.setM(Double.isNaN(m) ? null : m);
+		}
+		return point;
+	}
+
+	/**
+	 * Create a line string from the coordinates
+	 *
+	 * @return line string
+	 */
+	public LineString toLineString() {
+		LineString lineString = new LineString(hasZ, hasM);
+		List<Point> points = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			points.add(getPoint(i));
+		}
+		lineString.setPoints(points);
+		return lineString;
+	}
+
+}
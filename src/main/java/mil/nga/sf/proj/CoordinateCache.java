@@ -0,0 +1,438 @@
+package mil.nga.sf.proj;
+
+import java.util.Arrays;
+
+import mil.nga.proj.Projection;
+import mil.nga.sf.util.SFException;
+
+/**
+ * Coordinate Cache of already transformed coordinates, keyed by the raw bits
+ * of the source coordinate values. Used by a {@link GeometryTransform} to
+ * project each distinct vertex only once when geometries share vertices, such
+ * as neighboring polygons, polyhedral surface patches, and TIN triangles.
+ *
+ * The cache is an open addressing hash map from source coordinate bits to an
+ * index into primitive result arrays, so lookups do not box coordinate values.
+ * A cache is bound to the projections of the first transform using it, is not
+ * thread safe, and is intended to live for the duration of one geometry or
+ * batch, see {@link GeometryTransform#transformCached(mil.nga.sf.Geometry)}.
+ * The cached coordinates are released when the max size is reached, and
+ * {@link #clear()} releases them and the transform binding between batches.
+ *
+ * @author osbornb
+ * @since 4.3.3
+ */
+public class CoordinateCache {
+
+	/**
+	 * Default initial capacity
+	 */
+	public static final int DEFAULT_CAPACITY = 256;
+
+	/**
+	 * Default max number of cached coordinates
+	 */
+	public static final int DEFAULT_MAX_SIZE = 1 << 18;
+
+	/**
+	 * Empty hash table slot
+	 */
+	private static final int EMPTY = -1;
+
+	/**
+	 * Hash table of coordinate indices, sized to a power of two
+	 */
+	private int[] table;
+
+	/**
+	 * Source x coordinate bits
+	 */
+	private long[] keyX;
+
+	/**
+	 * Source y coordinate bits
+	 */
+	private long[] keyY;
+
+	/**
+	 * Source z coordinate bits
+	 */
+	private long[] keyZ;
+
+	/**
+	 * Transformed x coordinates
+	 */
+	private double[] valueX;
+
+	/**
+	 * Transformed y coordinates
+	 */
+	private double[] valueY;
+
+	/**
+	 * Transformed z coordinates
+	 */
+	private double[] valueZ;
+
+	/**
+	 * Max number of cached coordinates before releasing them
+	 */
+	private final int maxSize;
+
+	/**
+	 * From projection of the bound transform, null when not bound
+	 */
+	private Projection fromProjection = null;
+
+	/**
+	 * To projection of the bound transform, null when not bound
+	 */
+	private Projection toProjection = null;
+
+	/**
+	 * Number of cached coordinates
+	 */
+	private int size = 0;
+
+	/**
+	 * Cache hits
+	 */
+	private long hits = 0;
+
+	/**
+	 * Cache misses
+	 */
+	private long misses = 0;
+
+	/**
+	 * Constructor
+	 */
+	public CoordinateCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param capacity
+	 *            initial capacity of distinct coordinates
+	 */
+	public CoordinateCache(int capacity) {
+		this(capacity, DEFAULT_MAX_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param capacity
+	 *            initial capacity of distinct coordinates
+	 * @param maxSize
+	 *            max number of cached coordinates before releasing them
+	 */
+	public CoordinateCache(int capacity, int maxSize) {
+		if (maxSize < 1) {
+			throw new SFException("Max size must be positive: " + maxSize);
+		}
+		this.maxSize = maxSize;
+		allocate(Math.max(Math.min(capacity, maxSize), 1));
+	}
+
+	/**
+	 * Get the max number of cached coordinates before releasing them
+	 *
+	 * @return max size
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * Check if the cache is bound to the projections of a transform
+	 *
+	 * @return true if bound
+	 */
+	public boolean isBound() {
+		return fromProjection != null;
+	}
+
+	/**
+	 * Get the number of cached coordinates
+	 *
+	 * @return size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Check if the cache is empty
+	 *
+	 * @return true if empty
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Get the number of lookups that found a cached coordinate
+	 *
+	 * @return hits
+	 */
+	public long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Get the number of lookups that required a transform
+	 *
+	 * @return misses
+	 */
+	public long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Get the total number of lookups
+	 *
+	 * @return lookups
+	 */
+	public long getLookups() {
+		return hits + misses;
+	}
+
+	/**
+	 * Get the hit rate, the fraction of lookups served from the cache
+	 *
+	 * @return hit rate between 0.0 and 1.0
+	 */
+	public double getHitRate() {
+		long lookups = getLookups();
+		return lookups > 0 ? (double) hits / lookups : 0.0;
+	}
+
+	/**
+	 * Reset the hit and miss counts, keeping the cached coordinates
+	 */
+	public void resetStatistics() {
+		hits = 0;
+		misses = 0;
+	}
+
+	/**
+	 * Clear the cached coordinates, reset the statistics, and release the
+	 * transform binding
+	 */
+	public void clear() {
+		release();
+		resetStatistics();
+		fromProjection = null;
+		toProjection = null;
+	}
+
+	/**
+	 * Bind the cache to the projections of the transform, rejecting a
+	 * transform between different projections than the one that filled the
+	 * cache
+	 *
+	 * @param transform
+	 *            geometry transform
+	 */
+	void bind(GeometryTransform transform) {
+		if (fromProjection == null) {
+			fromProjection = transform.getFromProjection();
+			toProjection = transform.getToProjection();
+		} else if (!fromProjection.equals(transform.getFromProjection())
+				|| !toProjection.equals(transform.getToProjection())) {
+			throw new SFException(
+					"Coordinate cache is bound to a transform from "
+							+ fromProjection + " to " + toProjection
+							+ ", not from " + transform.getFromProjection()
+							+ " to " + transform.getToProjection());
+		}
+	}
+
+	/**
+	 * Find the index of a cached source coordinate, counting the lookup as a
+	 * hit or miss
+	 *
+	 * @param x
+	 *            source x
+	 * @param y
+	 *            source y
+	 * @param z
+	 *            source z, NaN when not present
+	 * @return coordinate index or -1 if not cached
+	 */
+	public int find(double x, double y, double z) {
+		long bitsX = Double.doubleToLongBits(x);
+		long bitsY = Double.doubleToLongBits(y);
+		long bitsZ = Double.doubleToLongBits(z);
+		int mask = table.length - 1;
+		int slot = hash(bitsX, bitsY, bitsZ) & mask;
+		int index;
+		while ((index = table[slot]) != EMPTY) {
+			if (keyX[index] == bitsX && keyY[index] == bitsY
+					&& keyZ[index] == bitsZ) {
+				hits++;
+				return index;
+			}
+			slot = (slot + 1) & mask;
+		}
+		misses++;
+		return EMPTY;
+	}
+
+	/**
+	 * Cache a transformed coordinate. The source coordinate is expected to not
+	 * already be cached.
+	 *
+	 * @param x
+	 *            source x
+	 * @param y
+	 *            source y
+	 * @param z
+	 *            source z, NaN when not present
+	 * @param toX
+	 *            transformed x
+	 * @param toY
+	 *            transformed y
+	 * @param toZ
+	 *            transformed z
+	 * @return coordinate index
+	 */
+	public int put(double x, double y, double z, double toX, double toY,
+			double toZ) {
+		if (size == maxSize) {
+			release();
+		} else if (size == keyX.length) {
+			grow();
+		}
+		int index = size++;
+		keyX[index] = Double.doubleToLongBits(x);
+		keyY[index] = Double.doubleToLongBits(y);
+		keyZ[index] = Double.doubleToLongBits(z);
+		valueX[index] = toX;
+		valueY[index] = toY;
+		valueZ[index] = toZ;
+		insert(index);
+		return index;
+	}
+
+	/**
+	 * Get the transformed x coordinate
+	 *
+	 * @param index
+	 *            coordinate index
+	 * @return x
+	 */
+	public double getX(int index) {
+		return valueX[index];
+	}
+
+	/**
+	 * Get the transformed y coordinate
+	 *
+	 * @param index
+	 *            coordinate index
+	 * @return y
+	 */
+	public double getY(int index) {
+		return valueY[index];
+	}
+
+	/**
+	 * Get the transformed z coordinate
+	 *
+	 * @param index
+	 *            coordinate index
+	 * @return z
+	 */
+	public double getZ(int index) {
+		return valueZ[index];
+	}
+
+	/**
+	 * Release the cached coordinates, keeping the statistics and binding
+	 */
+	private void release() {
+		Arrays.fill(table, EMPTY);
+		size = 0;
+	}
+
+	/**
+	 * Allocate the arrays for the coordinate capacity, keeping the hash table
+	 * load factor at or below one half
+	 *
+	 * @param capacity
+	 *            coordinate capacity
+	 */
+	private void allocate(int capacity) {
+		int tableSize = Integer.highestOneBit(capacity * 2 - 1) << 1;
+		table = new int[tableSize];
+		Arrays.fill(table, EMPTY);
+		int entries = tableSize / 2;
+		keyX = new long[entries];
+		keyY = new long[entries];
+		keyZ = new long[entries];
+		valueX = new double[entries];
+		valueY = new double[entries];
+		valueZ = new double[entries];
+	}
+
+	/**
+	 * Double the capacity and rehash the cached coordinates
+	 */
+	private void grow() {
+		long[] oldKeyX = keyX;
+		long[] oldKeyY = keyY;
+		long[] oldKeyZ = keyZ;
+		double[] oldValueX = valueX;
+		double[] oldValueY = valueY;
+		double[] oldValueZ = valueZ;
+		allocate(oldKeyX.length * 2);
+		System.arraycopy(oldKeyX, 0, keyX, 0, size);
+		System.arraycopy(oldKeyY, 0, keyY, 0, size);
+		System.arraycopy(oldKeyZ, 0, keyZ, 0, size);
+		System.arraycopy(oldValueX, 0, valueX, 0, size);
+		System.arraycopy(oldValueY, 0, valueY, 0, size);
+		System.arraycopy(oldValueZ, 0, valueZ, 0, size);
+		for (int index = 0; index < size; index++) {
+			insert(index);
+		}
+	}
+
+	/**
+	 * Insert the coordinate index into the hash table
+	 *
+	 * @param index
+	 *            coordinate index
+	 */
+	private void insert(int index) {
+		int mask = table.length - 1;
+		int slot = hash(keyX[index], keyY[index], keyZ[index]) & mask;
+		while (table[slot] != EMPTY) {
+			slot = (slot + 1) & mask;
+		}
+		table[slot] = index;
+	}
+
+	/**
+	 * Hash the coordinate bits
+	 *
+	 * @param bitsX
+	 *            x bits
+	 * @param bitsY
+	 *            y bits
+	 * @param bitsZ
+	 *            z bits
+	 * @return hash
+	 */
+	private static int hash(long bitsX, long bitsY, long bitsZ) {
+		long hash = bitsX * 0x9E3779B97F4A7C15L;
+		hash = (hash ^ bitsY) * 0xC2B2AE3D27D4EB4FL;
+		hash = (hash ^ bitsZ) * 0x165667B19E3779F9L;
+		hash ^= hash >>> 32;
+		return (int) (hash ^ (hash >>> 16));
+	}
+
+}
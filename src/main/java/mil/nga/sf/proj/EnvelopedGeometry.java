@@ -0,0 +1,100 @@
+package mil.nga.sf.proj;
+
+import java.util.Collections;
+import java.util.List;
+
+import mil.nga.sf.Geometry;
+import mil.nga.sf.GeometryEnvelope;
+
+/**
+ * Projected geometry with the envelope built while transforming, and
+ * optionally the envelopes of its direct child parts
+ *
+ * @author osbornb
+ * @since 4.3.3
+ */
+public class EnvelopedGeometry {
+
+	/**
+	 * Projected geometry
+	 */
+	private final Geometry geometry;
+
+	/**
+	 * Projected geometry envelope
+	 */
+	private final GeometryEnvelope envelope;
+
+	/**
+	 * Projected child part envelopes
+	 */
+	private final List<GeometryEnvelope> partEnvelopes;
+
+	/**
+	 * Constructor
+	 *
+	 * @param geometry
+	 *            projected geometry
+	 * @param envelope
+	 *            projected geometry envelope, null if empty
+	 * @param partEnvelopes
+	 *            projected child part envelopes, null if not built
+	 */
+	public EnvelopedGeometry(Geometry geometry, GeometryEnvelope envelope,
+			List<GeometryEnvelope> partEnvelopes) {
+		this.geometry = geometry;
+		this.envelope = envelope;
+		this.partEnvelopes = partEnvelopes;
+	}
+
+	/**
+	 * Get the projected geometry
+	 *
+	 * @return geometry
+	 */
+	public Geometry getGeometry() {
+		return geometry;
+	}
+
+	/**
+	 * Get the projected geometry envelope
+	 *
+	 * @return envelope, null if the geometry is empty
+	 */
+	public GeometryEnvelope getEnvelope() {
+		return envelope;
+	}
+
+	/**
+	 * Check if child part envelopes were built
+	 *
+	 * @return true if has part envelopes
+	 */
+	public boolean hasPartEnvelopes() {
+		return partEnvelopes != null;
+	}
+
+	/**
+	 * Get the projected child part envelopes, in the order of the geometry
+	 * parts. Empty parts have a null envelope.
+	 *
+	 * @return part envelopes, empty if not built
+	 */
+	public List<GeometryEnvelope> getPartEnvelopes() {
+		return partEnvelopes != null
+				? Collections.unmodifiableList(partEnvelopes)
+				: Collections.emptyList();
+	}
+
+	/**
+	 * Get the projected child part envelope
+	 *
+	 * @param index
+	 *            part index
+	 * @return part envelope, null if the part is empty
+	 */
+	public GeometryEnvelope getPartEnvelope(int index) {
+		return getPartEnvelopes().get(index);
+	}
+
+}
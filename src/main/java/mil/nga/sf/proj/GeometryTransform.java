@@ -1,8 +1,11 @@
 package mil.nga.sf.proj;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Optional;
 
+import org.locationtech.proj4j.Proj4jException;
 import org.locationtech.proj4j.ProjCoordinate;
 
 import mil.nga.proj.Projection;
@@ -35,6 +38,47 @@ import mil.nga.sf.util.SFException;
  */
 public class GeometryTransform extends ProjectionTransform {
 
+	/**
+	 * Reusable single point transform coordinates per thread
+	 */
+	private static final ThreadLocal<ProjCoordinate[]> POINT_COORDINATES = ThreadLocal
+			.withInitial(() -> new ProjCoordinate[] { new ProjCoordinate(),
+					new ProjCoordinate() });
+
+	/**
+	 * Optional cache of transformed coordinates
+	 */
+	private CoordinateCache cache = null;
+
+	/**
+	 * Level of detail resolution in target projection units, 0 when not
+	 * simplifying
+	 */
+	private double resolution = 0.0;
+
+	/**
+	 * True when bulk transforms may dispatch to a projection kernel
+	 */
+	private boolean projectionKernelEnabled = true;
+
+	/**
+	 * Resolved projection kernel, empty when not supported for the transform
+	 * and null until resolved
+	 */
+	private volatile Optional<ProjectionKernel> projectionKernel = null;
+
+	/**
+	 * Relative source coordinate step for estimating the local projection
+	 * Jacobian
+	 */
+	private static final double SCALE_STEP = 1.0e-7;
+
+	/**
+	 * Margin applied to estimated target distances before skipping a vertex
+	 * transform, bounding the error of the local linear estimate
+	 */
+	private static final double SCALE_MARGIN = 1.1;
+
 	/**
 	 * Create a geometry projection transform
 	 * 
@@ -245,6 +289,213 @@ public class GeometryTransform extends ProjectionTransform {
 		return GeometryTransform.create(toProjection, fromProjection);
 	}
 
+	/**
+	 * Copy the transform for use by another thread or with its own coordinate
+	 * cache, resolution, and kernel settings. The copy keeps the projections,
+	 * resolution, kernel setting, and the already resolved projection kernel,
+	 * and starts without a coordinate cache.
+	 *
+	 * @return geometry transform copy
+	 * @since 4.3.3
+	 */
+	public GeometryTransform copy() {
+		GeometryTransform copy = new GeometryTransform(this);
+		copy.resolution = resolution;
+		copy.projectionKernelEnabled = projectionKernelEnabled;
+		copy.projectionKernel = projectionKernel;
+		return copy;
+	}
+
+	/**
+	 * Get the coordinate cache
+	 * 
+	 * @return coordinate cache or null when not memoizing
+	 * @since 4.3.3
+	 */
+	public CoordinateCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * Set the coordinate cache to memoize transformed coordinates, projecting
+	 * each distinct coordinate only once while the cache is set. Useful when
+	 * transforming geometries with shared vertices, such as polyhedral
+	 * surfaces, TINs, and adjacent multi polygons. The cache is kept across
+	 * transform calls until unset, up to its max size. Prefer
+	 * {@link #transformCached(Geometry, CoordinateCache)} to memoize for the
+	 * duration of one geometry or batch.
+	 * 
+	 * @param cache
+	 *            coordinate cache, null to stop memoizing
+	 * @throws SFException
+	 *             if the cache is bound to a transform between different
+	 *             projections
+	 * @since 4.3.3
+	 */
+	public void setCache(CoordinateCache cache) {
+		if (cache != null) {
+			cache.bind(this);
+		}
+		this.cache = cache;
+	}
+
+	/**
+	 * Enable memoizing transformed coordinates with a new coordinate cache
+	 * 
+	 * @return coordinate cache
+	 * @since 4.3.3
+	 */
+	public CoordinateCache enableCache() {
+		setCache(new CoordinateCache());
+		return cache;
+	}
+
+	/**
+	 * Check if transformed coordinates are memoized
+	 * 
+	 * @return true if caching
+	 * @since 4.3.3
+	 */
+	public boolean isCached() {
+		return cache != null;
+	}
+
+	/**
+	 * Get the level of detail resolution
+	 * 
+	 * @return resolution in target projection units, 0 when not simplifying
+	 * @since 4.3.3
+	 */
+	public double getResolution() {
+		return resolution;
+	}
+
+	/**
+	 * Set the level of detail resolution to combine simplification with
+	 * projection, such as the map units per pixel of a rendering zoom level.
+	 * Line string and ring vertices closer than the resolution to the previous
+	 * kept vertex are dropped. Vertex distances are mapped from source space
+	 * through the local projection Jacobian at the kept vertex with a
+	 * conservative margin, so most dropped vertices are never transformed.
+	 * The Jacobian is only estimated at kept vertices followed by a vertex to
+	 * skip. Rings keep at least four points, through the farthest vertex from
+	 * the start. Circular strings and points are not simplified.
+	 * 
+	 * @param resolution
+	 *            resolution in target projection units, 0 to not simplify
+	 * @since 4.3.3
+	 */
+	public void setResolution(double resolution) {
+		if (resolution < 0 || Double.isNaN(resolution)) {
+			throw new SFException(
+					"Resolution must be zero or positive: " + resolution);
+		}
+		this.resolution = resolution;
+	}
+
+	/**
+	 * Check if simplifying to a level of detail resolution
+	 * 
+	 * @return true if simplifying
+	 * @since 4.3.3
+	 */
+	public boolean isSimplifying() {
+		return resolution > 0;
+	}
+
+	/**
+	 * Check if bulk transforms may dispatch to a projection kernel
+	 * 
+	 * @return true if kernels are enabled
+	 * @since 4.3.3
+	 */
+	public boolean isProjectionKernelEnabled() {
+		return projectionKernelEnabled;
+	}
+
+	/**
+	 * Set if bulk transforms may dispatch to a projection kernel. Kernels
+	 * transform blocks of geographic degree coordinates to and from Mercator
+	 * and Equirectangular projections without the per coordinate general
+	 * transform path, matching it within a tolerance of 1e-9 relative units.
+	 * Kernels are not used while a coordinate cache is set.
+	 * 
+	 * @param projectionKernelEnabled
+	 *            true to enable kernels
+	 * @since 4.3.3
+	 */
+	public void setProjectionKernelEnabled(boolean projectionKernelEnabled) {
+		this.projectionKernelEnabled = projectionKernelEnabled;
+	}
+
+	/**
+	 * Check if the transform has a projection kernel for bulk transforms
+	 * 
+	 * @return true if a kernel is supported
+	 * @since 4.3.3
+	 */
+	public boolean hasProjectionKernel() {
+		return getProjectionKernel() != null;
+	}
+
+	/**
+	 * Get the projection kernel, resolving it once on first use. Resolved
+	 * kernels are read without locking.
+	 * 
+	 * @return kernel or null
+	 */
+	ProjectionKernel getProjectionKernel() {
+		Optional<ProjectionKernel> resolved = projectionKernel;
+		if (resolved == null) {
+			synchronized (this) {
+				resolved = projectionKernel;
+				if (resolved == null) {
+					resolved = Optional.ofNullable(
+							ProjectionKernel.create(fromProjection.getCrs(),
+									toProjection.getCrs(), transform));
+					projectionKernel = resolved;
+				}
+			}
+		}
+		return resolved.orElse(null);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public ProjCoordinate transform(ProjCoordinate from) {
+		ProjCoordinate to = new ProjCoordinate();
+		transform(from, to);
+		return to;
+	}
+
+	/**
+	 * Transform the coordinate into the provided result coordinate, using the
+	 * coordinate cache when set
+	 * 
+	 * @param from
+	 *            from coordinate
+	 * @param to
+	 *            result coordinate
+	 * @since 4.3.3
+	 */
+	public void transform(ProjCoordinate from, ProjCoordinate to) {
+		if (cache != null) {
+			int index = cache.find(from.x, from.y, from.z);
+			if (index < 0) {
+				transform.transform(from, to);
+				cache.put(from.x, from.y, from.z, to.x, to.y, to.z);
+			} else {
+				to.x = cache.getX(index);
+				to.y = cache.getY(index);
+				to.z = cache.getZ(index);
+			}
+		} else {
+			transform.transform(from, to);
+		}
+	}
+
 	/**
 	 * Transform the geometry envelope
 	 * 
@@ -263,6 +514,161 @@ public class GeometryTransform extends ProjectionTransform {
 		return projectedEnvelope;
 	}
 
+	/**
+	 * Transform the envelopes of all tiles at a zoom level of the tile grid
+	 * 
+	 * @param grid
+	 *            tile grid
+	 * @param zoom
+	 *            zoom level
+	 * @return projected tile envelopes
+	 * @since 4.3.3
+	 */
+	public TileGridEnvelopes transform(TileGrid grid, int zoom) {
+		return transform(grid, zoom, 0);
+	}
+
+	/**
+	 * Transform the envelopes of all tiles at a zoom level of the tile grid
+	 * 
+	 * @param grid
+	 *            tile grid
+	 * @param zoom
+	 *            zoom level
+	 * @param densify
+	 *            number of nodes between tile corners on each edge
+	 * @return projected tile envelopes
+	 * @since 4.3.3
+	 */
+	public TileGridEnvelopes transform(TileGrid grid, int zoom, int densify) {
+		return transform(grid, zoom, 0, 0, grid.getMatrixWidth(zoom) - 1,
+				grid.getMatrixHeight(zoom) - 1, densify);
+	}
+
+	/**
+	 * Transform the envelopes of the tiles intersecting the bounds at each
+	 * zoom level of the tile grid
+	 * 
+	 * @param grid
+	 *            tile grid
+	 * @param bounds
+	 *            bounds in the source projection
+	 * @param densify
+	 *            number of nodes between tile corners on each edge
+	 * @return projected tile envelopes per zoom level, from the min zoom
+	 * @since 4.3.3
+	 */
+	public List<TileGridEnvelopes> transform(TileGrid grid,
+			GeometryEnvelope bounds, int densify) {
+		List<TileGridEnvelopes> zoomEnvelopes = new ArrayList<>();
+		for (int zoom = grid.getMinZoom(); zoom <= grid.getMaxZoom(); zoom++) {
+			int minColumn = grid.getTileColumn(bounds.getMinX(), zoom);
+			int minRow = grid.getTileRow(bounds.getMaxY(), zoom);
+			int maxColumn = Math.max(minColumn,
+					grid.getMaxTileColumn(bounds.getMaxX(), zoom));
+			int maxRow = Math.max(minRow,
+					grid.getMaxTileRow(bounds.getMinY(), zoom));
+			zoomEnvelopes.add(transform(grid, zoom, minColumn, minRow,
+					maxColumn, maxRow, densify));
+		}
+		return zoomEnvelopes;
+	}
+
+	/**
+	 * Transform the envelopes of a range of tiles at a zoom level of the tile
+	 * grid. The shared tile edge nodes are projected once, and the tile
+	 * envelopes are computed from them on request, skipping nodes that fail to
+	 * project. Without densifying, each tile envelope matches
+	 * {@link #transform(GeometryEnvelope)} of the tile.
+	 * 
+	 * @param grid
+	 *            tile grid
+	 * @param zoom
+	 *            zoom level
+	 * @param minColumn
+	 *            min tile column
+	 * @param minRow
+	 *            min tile row
+	 * @param maxColumn
+	 *            max tile column
+	 * @param maxRow
+	 *            max tile row
+	 * @param densify
+	 *            number of nodes between tile corners on each edge
+	 * @return projected tile envelopes
+	 * @since 4.3.3
+	 */
+	public TileGridEnvelopes transform(TileGrid grid, int zoom, int minColumn,
+			int minRow, int maxColumn, int maxRow, int densify) {
+
+		if (minColumn < 0 || maxColumn >= grid.getMatrixWidth(zoom)
+				|| minColumn > maxColumn || minRow < 0
+				|| maxRow >= grid.getMatrixHeight(zoom) || minRow > maxRow) {
+			throw new SFException("Invalid tile range at zoom " + zoom
+					+ ". Columns: " + minColumn + " - " + maxColumn
+					+ ", Rows: " + minRow + " - " + maxRow);
+		}
+		if (densify < 0) {
+			throw new SFException(
+					"Densify count can not be negative: " + densify);
+		}
+
+		int columns = maxColumn - minColumn + 1;
+		int rows = maxRow - minRow + 1;
+		int segments = densify + 1;
+
+		long horizontalCount = (long) columns * segments + 1;
+		long verticalCount = (long) rows * segments + 1;
+		long nodes = horizontalCount * (rows + 1);
+		if (densify > 0) {
+			nodes += verticalCount * (columns + 1);
+		}
+		if (nodes > CoordinateBuffer.MAX_VALUES) {
+			throw new SFException("Tile range at zoom " + zoom + " requires "
+					+ nodes + " grid nodes, exceeding the max of "
+					+ CoordinateBuffer.MAX_VALUES);
+		}
+
+		double[] horizontalX = new double[(int) (horizontalCount
+				* (rows + 1))];
+		double[] horizontalY = new double[horizontalX.length];
+		int index = 0;
+		for (int k = 0; k <= rows; k++) {
+			double y = grid.getY(minRow + k, zoom);
+			for (int i = 0; i < horizontalCount; i++) {
+				horizontalX[index] = grid
+						.getX(minColumn + (double) i / segments, zoom);
+				horizontalY[index++] = y;
+			}
+		}
+		TransformFailures failures = transform(horizontalX, horizontalY);
+		failures.fill(horizontalX, Double.NaN);
+		failures.fill(horizontalY, Double.NaN);
+
+		double[] verticalX = null;
+		double[] verticalY = null;
+		if (densify > 0) {
+			verticalX = new double[(int) (verticalCount * (columns + 1))];
+			verticalY = new double[verticalX.length];
+			index = 0;
+			for (int k = 0; k <= columns; k++) {
+				double x = grid.getX(minColumn + k, zoom);
+				for (int j = 0; j < verticalCount; j++) {
+					verticalX[index] = x;
+					verticalY[index++] = grid
+							.getY(minRow + (double) j / segments, zoom);
+				}
+			}
+			failures = transform(verticalX, verticalY);
+			failures.fill(verticalX, Double.NaN);
+			failures.fill(verticalY, Double.NaN);
+		}
+
+		return new TileGridEnvelopes(grid, zoom, minColumn, minRow, columns,
+				rows, segments, horizontalX, horizontalY, verticalX,
+				verticalY);
+	}
+
 	/**
 	 * Transform the geometry
 	 * 
@@ -271,6 +677,111 @@ public class GeometryTransform extends ProjectionTransform {
 	 * @return projected geometry
 	 */
 	public Geometry transform(Geometry geometry) {
+		return transform(geometry, null, null);
+	}
+
+	/**
+	 * Transform the geometry, projecting each distinct coordinate only once
+	 * with a coordinate cache scoped to the call
+	 * 
+	 * @param geometry
+	 *            geometry
+	 * @return projected geometry
+	 * @since 4.3.3
+	 */
+	public Geometry transformCached(Geometry geometry) {
+		return transformCached(geometry, new CoordinateCache());
+	}
+
+	/**
+	 * Transform the geometry, memoizing transformed coordinates in the
+	 * coordinate cache for the duration of the call. Pass the same cache to
+	 * each call of a batch to share vertices between its geometries. The call
+	 * runs on a {@link #copy()} of the transform, leaving this transform's own
+	 * cache untouched, so it is safe on transforms shared between threads.
+	 * The coordinate cache itself is not thread safe.
+	 * 
+	 * @param geometry
+	 *            geometry
+	 * @param cache
+	 *            coordinate cache
+	 * @return projected geometry
+	 * @throws SFException
+	 *             if the cache is bound to a transform between different
+	 *             projections
+	 * @since 4.3.3
+	 */
+	public Geometry transformCached(Geometry geometry, CoordinateCache cache) {
+		GeometryTransform transform = copy();
+		transform.setCache(cache);
+		return transform.transform(geometry);
+	}
+
+	/**
+	 * Transform the geometry and build the envelope of the projected geometry
+	 * while transforming, avoiding a second pass over the projected vertices
+	 * 
+	 * @param geometry
+	 *            geometry
+	 * @return projected geometry and envelope
+	 * @since 4.3.3
+	 */
+	public EnvelopedGeometry transformWithEnvelope(Geometry geometry) {
+		return transformWithEnvelope(geometry, false);
+	}
+
+	/**
+	 * Transform the geometry and build the envelope of the projected geometry
+	 * while transforming, avoiding a second pass over the projected vertices.
+	 * Part envelopes are built for the direct children of the geometry: the
+	 * geometries of a collection, rings of a polygon, line strings of a
+	 * compound curve, and polygons of a polyhedral surface.
+	 * 
+	 * @param geometry
+	 *            geometry
+	 * @param parts
+	 *            true to also build an envelope per child part
+	 * @return projected geometry and envelopes
+	 * @since 4.3.3
+	 */
+	public EnvelopedGeometry transformWithEnvelope(Geometry geometry,
+			boolean parts) {
+
+		GeometryEnvelope envelope = createEnvelope();
+		List<GeometryEnvelope> partEnvelopes = parts ? new ArrayList<>()
+				: null;
+
+		Geometry to = transform(geometry, envelope, partEnvelopes);
+
+		if (partEnvelopes != null) {
+			for (int i = 0; i < partEnvelopes.size(); i++) {
+				partEnvelopes.set(i, validEnvelope(partEnvelopes.get(i)));
+			}
+		}
+
+		return new EnvelopedGeometry(to, validEnvelope(envelope),
+				partEnvelopes);
+	}
+
+	/**
+	 * Transform the geometry into a lazy projected view. Points, child
+	 * geometries, rings, and line strings are held in
+	 * {@link LazyTransformList} lists and projected when first accessed, so
+	 * parts that are never accessed are never transformed. The projected
+	 * geometry type matches the source geometry type. Single points are
+	 * projected immediately. Line strings are not simplified by the
+	 * resolution, which requires transforming neighboring vertices together.
+	 *
+	 * The view references the source geometry until its parts are accessed,
+	 * and projects with this transform when accessed, so should be used from
+	 * the same thread and before the source geometry is modified.
+	 *
+	 * @param geometry
+	 *            geometry
+	 * @return lazy projected geometry
+	 * @since 4.3.3
+	 */
+	public Geometry transformLazy(Geometry geometry) {
 
 		Geometry to = null;
 
@@ -280,42 +791,180 @@ public class GeometryTransform extends ProjectionTransform {
 			to = transform((Point) geometry);
 			break;
 		case LINESTRING:
-			to = transform((LineString) geometry);
+		case CIRCULARSTRING:
+			LineString lineString = (LineString) geometry;
+			LineString toLineString = geometryType == GeometryType.CIRCULARSTRING
+					? new CircularString(lineString.hasZ(), lineString.hasM())
+					: new LineString(lineString.hasZ(), lineString.hasM());
+			toLineString.setPoints(lazyPoints(lineString.getPoints(),
+					PointKernel.get(lineString)));
+			to = toLineString;
 			break;
 		case POLYGON:
-			to = transform((Polygon) geometry);
+		case TRIANGLE:
+			Polygon polygon = (Polygon) geometry;
+			Polygon toPolygon = geometryType == GeometryType.TRIANGLE
+					? new Triangle(polygon.hasZ(), polygon.hasM())
+					: new Polygon(polygon.hasZ(), polygon.hasM());
+			toPolygon.setRings(lazy(polygon.getRings()));
+			to = toPolygon;
 			break;
 		case MULTIPOINT:
-			to = transform((MultiPoint) geometry);
+			MultiPoint multiPoint = (MultiPoint) geometry;
+			MultiPoint toMultiPoint = new MultiPoint(multiPoint.hasZ(),
+					multiPoint.hasM());
+			toMultiPoint.setPoints(lazyPoints(multiPoint.getPoints(),
+					PointKernel.get(multiPoint)));
+			to = toMultiPoint;
 			break;
 		case MULTILINESTRING:
-			to = transform((MultiLineString) geometry);
+			MultiLineString multiLineString = (MultiLineString) geometry;
+			MultiLineString toMultiLineString = new MultiLineString(
+					multiLineString.hasZ(), multiLineString.hasM());
+			toMultiLineString
+					.setLineStrings(lazy(multiLineString.getLineStrings()));
+			to = toMultiLineString;
 			break;
 		case MULTIPOLYGON:
-			to = transform((MultiPolygon) geometry);
-			break;
-		case CIRCULARSTRING:
-			to = transform((CircularString) geometry);
+			MultiPolygon multiPolygon = (MultiPolygon) geometry;
+			MultiPolygon toMultiPolygon = new MultiPolygon(multiPolygon.hasZ(),
+					multiPolygon.hasM());
+			toMultiPolygon.setPolygons(lazy(multiPolygon.getPolygons()));
+			to = toMultiPolygon;
 			break;
 		case COMPOUNDCURVE:
-			to = transform((CompoundCurve) geometry);
+			CompoundCurve compoundCurve = (CompoundCurve) geometry;
+			CompoundCurve toCompoundCurve = new CompoundCurve(
+					compoundCurve.hasZ(), compoundCurve.hasM());
+			toCompoundCurve.setLineStrings(lazy(compoundCurve.getLineStrings()));
+			to = toCompoundCurve;
 			break;
 		case CURVEPOLYGON:
-			to = transform((CurvePolygon<?>) geometry);
+			@SuppressWarnings("unchecked")
+			CurvePolygon<Curve> curvePolygon = (CurvePolygon<Curve>) geometry;
+			CurvePolygon<Curve> toCurvePolygon = new CurvePolygon<Curve>(
+					curvePolygon.hasZ(), curvePolygon.hasM());
+			toCurvePolygon.setRings(lazy(curvePolygon.getRings()));
+			to = toCurvePolygon;
 			break;
 		case POLYHEDRALSURFACE:
-			to = transform((PolyhedralSurface) geometry);
-			break;
 		case TIN:
-			to = transform((TIN) geometry);
+			PolyhedralSurface polyhedralSurface = (PolyhedralSurface) geometry;
+			PolyhedralSurface toPolyhedralSurface = geometryType == GeometryType.TIN
+					? new TIN(polyhedralSurface.hasZ(),
+							polyhedralSurface.hasM())
+					: new PolyhedralSurface(polyhedralSurface.hasZ(),
+							polyhedralSurface.hasM());
+			toPolyhedralSurface
+					.setPolygons(lazy(polyhedralSurface.getPolygons()));
+			to = toPolyhedralSurface;
+			break;
+		case GEOMETRYCOLLECTION:
+			@SuppressWarnings("unchecked")
+			GeometryCollection<Geometry> geometryCollection = (GeometryCollection<Geometry>) geometry;
+			GeometryCollection<Geometry> toGeometryCollection = new GeometryCollection<Geometry>(
+					geometryCollection.hasZ(), geometryCollection.hasM());
+			toGeometryCollection
+					.setGeometries(lazy(geometryCollection.getGeometries()));
+			to = toGeometryCollection;
+			break;
+		default:
+			throw new SFException("Unsupported Geometry Type: " + geometryType);
+		}
+
+		return to;
+	}
+
+	/**
+	 * Create a lazy list of projected child geometries, each transformed into
+	 * a lazy view when first accessed
+	 *
+	 * @param geometries
+	 *            child geometries
+	 * @param <T>
+	 *            geometry type
+	 * @return lazy projected geometries
+	 */
+	private <T extends Geometry> LazyTransformList<T> lazy(
+			List<T> geometries) {
+		return new LazyTransformList<>(geometries, (geometry) -> {
+			@SuppressWarnings("unchecked")
+			T to = (T) transformLazy(geometry);
+			return to;
+		});
+	}
+
+	/**
+	 * Create a lazy list of projected points, sharing reusable coordinates
+	 * and the point kernel chosen for the containing geometry
+	 *
+	 * @param points
+	 *            points
+	 * @param kernel
+	 *            point kernel
+	 * @return lazy projected points
+	 */
+	private LazyTransformList<Point> lazyPoints(List<Point> points,
+			PointKernel kernel) {
+		ProjCoordinate fromCoord = new ProjCoordinate();
+		ProjCoordinate toCoord = new ProjCoordinate();
+		return new LazyTransformList<>(points,
+				(point) -> transform(point, kernel, fromCoord, toCoord, null));
+	}
+
+	/**
+	 * Transform the geometry
+	 * 
+	 * @param geometry
+	 *            geometry
+	 * @param envelope
+	 *            envelope to expand, null when not building
+	 * @param parts
+	 *            child part envelopes to build, null when not building
+	 * @return projected geometry
+	 */
+	private Geometry transform(Geometry geometry, GeometryEnvelope envelope,
+			List<GeometryEnvelope> parts) {
+
+		Geometry to = null;
+
+		GeometryType geometryType = geometry.getGeometryType();
+		switch (geometryType) {
+		case POINT:
+			to = transform((Point) geometry, envelope);
+			break;
+		case LINESTRING:
+		case CIRCULARSTRING:
+			to = transform((LineString) geometry, envelope);
 			break;
+		case POLYGON:
 		case TRIANGLE:
-			to = transform((Triangle) geometry);
+			to = transform((Polygon) geometry, envelope, parts);
+			break;
+		case MULTIPOINT:
+			to = transform((MultiPoint) geometry, envelope, parts);
+			break;
+		case MULTILINESTRING:
+			to = transform((MultiLineString) geometry, envelope, parts);
+			break;
+		case MULTIPOLYGON:
+			to = transform((MultiPolygon) geometry, envelope, parts);
+			break;
+		case COMPOUNDCURVE:
+			to = transform((CompoundCurve) geometry, envelope, parts);
+			break;
+		case CURVEPOLYGON:
+			to = transform((CurvePolygon<?>) geometry, envelope, parts);
+			break;
+		case POLYHEDRALSURFACE:
+		case TIN:
+			to = transform((PolyhedralSurface) geometry, envelope, parts);
 			break;
 		case GEOMETRYCOLLECTION:
 			@SuppressWarnings("unchecked")
 			GeometryCollection<Geometry> toCollection = transform(
-					(GeometryCollection<Geometry>) geometry);
+					(GeometryCollection<Geometry>) geometry, envelope,
+					parts);
 			to = toCollection;
 			break;
 		default:
@@ -326,52 +975,85 @@ public class GeometryTransform extends ProjectionTransform {
 	}
 
 	/**
-	 * Transform the projected point
+	 * Transform the projected point. Suited to streaming points one at a
+	 * time, allocating only the projected point.
 	 * 
 	 * @param from
 	 *            from point
 	 * @return projected from
 	 */
 	public Point transform(Point from) {
+		return transform(from, null);
+	}
 
-		ProjCoordinate fromCoord;
-		if (from.hasZ()) {
-			fromCoord = new ProjCoordinate(from.getX(), from.getY(),
-					from.getZ() != null ? from.getZ() : Double.NaN);
-		} else {
-			fromCoord = new ProjCoordinate(from.getX(), from.getY());
-		}
-
-		ProjCoordinate toCoord = transform(fromCoord);
-
-		Point to = new Point(from.hasZ(), from.hasM(), toCoord.x, toCoord.y);
-		if (from.hasZ()) {
-			if (Double.isNaN(toCoord.z)) {
-				to.setZ(from.getZ());
-			} else {
-				to.setZ(toCoord.z);
-			}
-		}
-		if (from.hasM()) {
-			to.setM(from.getM());
+	/**
+	 * Transform the projected point
+	 * 
+	 * @param from
+	 *            from point
+	 * @param envelope
+	 *            envelope to expand, null when not building
+	 * @return projected from
+	 */
+	private Point transform(Point from, GeometryEnvelope envelope) {
+		ProjCoordinate[] coordinates = POINT_COORDINATES.get();
+		Point to = PointKernel.get(from).transform(this, from, coordinates[0],
+				coordinates[1]);
+		if (envelope != null) {
+			expandEnvelope(envelope, to);
 		}
-
 		return to;
 	}
 
 	/**
-	 * Transform a list of points
+	 * Transform the projected point with a point kernel chosen for the
+	 * containing geometry, falling back to the point's own kernel when its Z
+	 * and M values differ
 	 * 
 	 * @param from
-	 *            points to transform
-	 * @return transformed points
-	 */
+	 *            from point
+	 * @param kernel
+	 *            point kernel
+	 * @param fromCoord
+	 *            reusable from coordinate
+	 * @param toCoord
+	 *            reusable result coordinate
+	 * @param envelope
+	 *            envelope to expand, null when not building
+	 * @return projected from
+	 */
+	private Point transform(Point from, PointKernel kernel,
+			ProjCoordinate fromCoord, ProjCoordinate toCoord,
+			GeometryEnvelope envelope) {
+		if (!kernel.matches(from)) {
+			kernel = PointKernel.get(from);
+		}
+		Point to = kernel.transform(this, from, fromCoord, toCoord);
+		if (envelope != null) {
+			expandEnvelope(envelope, to);
+		}
+		return to;
+	}
+
+	/**
+	 * Transform a list of points
+	 * 
+	 * @param from
+	 *            points to transform
+	 * @return transformed points
+	 */
 	public List<Point> transform(List<Point> from) {
 
-		List<Point> to = new ArrayList<>();
+		List<Point> to = new ArrayList<>(from.size());
+
+		ProjCoordinate fromCoord = new ProjCoordinate();
+		ProjCoordinate toCoord = new ProjCoordinate();
+		PointKernel kernel = from.isEmpty() ? PointKernel.XY
+				: PointKernel.get(from.get(0));
 
 		for (Point fromPoint : from) {
-			Point toPoint = transform(fromPoint);
+			Point toPoint = transform(fromPoint, kernel, fromCoord, toCoord,
+					null);
 			to.add(toPoint);
 		}
 
@@ -386,6 +1068,20 @@ public class GeometryTransform extends ProjectionTransform {
 	 * @return projected line string
 	 */
 	public LineString transform(LineString lineString) {
+		return transform(lineString, null);
+	}
+
+	/**
+	 * Transform the projected line string
+	 * 
+	 * @param lineString
+	 *            line string
+	 * @param envelope
+	 *            envelope to expand, null when not building
+	 * @return projected line string
+	 */
+	private LineString transform(LineString lineString,
+			GeometryEnvelope envelope) {
 
 		LineString to = null;
 
@@ -397,14 +1093,223 @@ public class GeometryTransform extends ProjectionTransform {
 			to = new LineString(lineString.hasZ(), lineString.hasM());
 		}
 
-		for (Point point : lineString.getPoints()) {
-			Point toPoint = transform(point);
-			to.addPoint(toPoint);
+		updateHasZandM(envelope, lineString);
+
+		ProjCoordinate fromCoord = new ProjCoordinate();
+		ProjCoordinate toCoord = new ProjCoordinate();
+		PointKernel kernel = PointKernel.get(lineString);
+
+		if (resolution > 0 && to.getGeometryType() == GeometryType.LINESTRING
+				&& lineString.numPoints() > 2) {
+			simplify(lineString, to.getPoints(), kernel, fromCoord, toCoord);
+			if (envelope != null) {
+				for (Point toPoint : to.getPoints()) {
+					expandEnvelope(envelope, toPoint);
+				}
+			}
+		} else {
+			for (Point point : lineString.getPoints()) {
+				Point toPoint = transform(point, kernel, fromCoord, toCoord,
+						envelope);
+				to.addPoint(toPoint);
+			}
 		}
 
 		return to;
 	}
 
+	/**
+	 * Simplify and project the line string to the level of detail resolution,
+	 * skipping the transform of vertices within the resolution of the previous
+	 * kept vertex as estimated through the local projection Jacobian at that
+	 * kept vertex. The Jacobian is estimated at a kept vertex only once a
+	 * following vertex is a candidate to skip, so runs of kept vertices at
+	 * fine resolutions are not probed. Rings simplified to
+	 * fewer than four points are kept as a minimal ring through the farthest
+	 * vertex from the start.
+	 * 
+	 * @param lineString
+	 *            line string
+	 * @param kept
+	 *            projected kept points to add to
+	 * @param kernel
+	 *            point kernel
+	 * @param fromCoord
+	 *            reusable from coordinate
+	 * @param toCoord
+	 *            reusable result coordinate
+	 */
+	private void simplify(LineString lineString, List<Point> kept,
+			PointKernel kernel, ProjCoordinate fromCoord,
+			ProjCoordinate toCoord) {
+
+		List<Point> points = lineString.getPoints();
+		int last = points.size() - 1;
+
+		double[] jacobian = new double[4];
+		double skipDistance = resolution / SCALE_MARGIN;
+		double skipSquared = skipDistance * skipDistance;
+		double resolutionSquared = resolution * resolution;
+
+		Point start = points.get(0);
+		Point keptFrom = start;
+		Point keptTo = transform(keptFrom, kernel, fromCoord, toCoord, null);
+		kept.add(keptTo);
+		boolean linear = jacobian(keptFrom, keptTo, fromCoord, toCoord,
+				jacobian);
+		boolean current = true;
+
+		int keptIndex = -1;
+		int farthestIndex = -1;
+		double farthestSquared = 0.0;
+
+		for (int i = 1; i < last; i++) {
+
+			Point point = points.get(i);
+
+			double sx = point.getX() - start.getX();
+			double sy = point.getY() - start.getY();
+			double startSquared = sx * sx + sy * sy;
+			if (startSquared > farthestSquared) {
+				farthestSquared = startSquared;
+				farthestIndex = i;
+			}
+
+			double dx = point.getX() - keptFrom.getX();
+			double dy = point.getY() - keptFrom.getY();
+			if (!current && (!linear
+					|| estimateSquared(jacobian, dx, dy) < skipSquared)) {
+				linear = jacobian(keptFrom, keptTo, fromCoord, toCoord,
+						jacobian);
+				current = true;
+			}
+			if (linear && estimateSquared(jacobian, dx, dy) < skipSquared) {
+				continue;
+			}
+
+			Point toPoint = transform(point, kernel, fromCoord, toCoord,
+					null);
+			double toX = toPoint.getX() - keptTo.getX();
+			double toY = toPoint.getY() - keptTo.getY();
+			double toSquared = toX * toX + toY * toY;
+			if (toSquared < resolutionSquared) {
+				continue;
+			}
+
+			kept.add(toPoint);
+			keptIndex = i;
+			keptFrom = point;
+			keptTo = toPoint;
+			current = false;
+		}
+
+		Point end = points.get(last);
+		if (end.equals(start)) {
+			kept.add(new Point(kept.get(0)));
+		} else {
+			kept.add(transform(end, kernel, fromCoord, toCoord, null));
+		}
+
+		if (start.equalsXY(end) && kept.size() < 4) {
+			Point endTo = kept.remove(kept.size() - 1);
+			if (farthestIndex > 0 && farthestIndex != keptIndex) {
+				Point farthestTo = transform(points.get(farthestIndex),
+						kernel, fromCoord, toCoord, null);
+				kept.add(farthestIndex > keptIndex ? kept.size() : 1,
+						farthestTo);
+			}
+			while (kept.size() < 3) {
+				kept.add(new Point(kept.get(kept.size() - 1)));
+			}
+			kept.add(endTo);
+		}
+	}
+
+	/**
+	 * Estimate the squared target distance of a source displacement through
+	 * the local projection Jacobian
+	 * 
+	 * @param jacobian
+	 *            Jacobian as dx/dx, dx/dy, dy/dx, dy/dy
+	 * @param dx
+	 *            source x displacement
+	 * @param dy
+	 *            source y displacement
+	 * @return estimated squared target distance
+	 */
+	private static double estimateSquared(double[] jacobian, double dx,
+			double dy) {
+		double estimateX = jacobian[0] * dx + jacobian[1] * dy;
+		double estimateY = jacobian[2] * dx + jacobian[3] * dy;
+		return estimateX * estimateX + estimateY * estimateY;
+	}
+
+	/**
+	 * Estimate the local projection Jacobian at a point with finite
+	 * differences, used to map source distances to target distances
+	 * 
+	 * @param from
+	 *            from point
+	 * @param to
+	 *            projected point
+	 * @param fromCoord
+	 *            reusable from coordinate
+	 * @param toCoord
+	 *            reusable result coordinate
+	 * @param jacobian
+	 *            Jacobian result as dx/dx, dx/dy, dy/dx, dy/dy
+	 * @return true if estimated, false if the projection is not locally
+	 *         linear at the point
+	 */
+	private boolean jacobian(Point from, Point to, ProjCoordinate fromCoord,
+			ProjCoordinate toCoord, double[] jacobian) {
+
+		double x = from.getX();
+		double y = from.getY();
+		double step = SCALE_STEP
+				* Math.max(1.0, Math.max(Math.abs(x), Math.abs(y)));
+
+		boolean linear;
+		try {
+
+			fromCoord.x = x + step;
+			fromCoord.y = y;
+			fromCoord.z = Double.NaN;
+			probe(fromCoord, toCoord);
+			jacobian[0] = (toCoord.x - to.getX()) / step;
+			jacobian[2] = (toCoord.y - to.getY()) / step;
+
+			fromCoord.x = x;
+			fromCoord.y = y + step;
+			probe(fromCoord, toCoord);
+			jacobian[1] = (toCoord.x - to.getX()) / step;
+			jacobian[3] = (toCoord.y - to.getY()) / step;
+
+			linear = true;
+			for (double value : jacobian) {
+				linear = linear && Double.isFinite(value);
+			}
+
+		} catch (Proj4jException e) {
+			linear = false;
+		}
+
+		return linear;
+	}
+
+	/**
+	 * Project a Jacobian probe coordinate directly, bypassing the coordinate
+	 * cache so probes do not fill it or skew its statistics
+	 * 
+	 * @param from
+	 *            probe coordinate
+	 * @param to
+	 *            projected probe coordinate
+	 */
+	void probe(ProjCoordinate from, ProjCoordinate to) {
+		transform.transform(from, to);
+	}
+
 	/**
 	 * Transform the projected polygon
 	 * 
@@ -413,6 +1318,22 @@ public class GeometryTransform extends ProjectionTransform {
 	 * @return projected polygon
 	 */
 	public Polygon transform(Polygon polygon) {
+		return transform(polygon, null, null);
+	}
+
+	/**
+	 * Transform the projected polygon
+	 * 
+	 * @param polygon
+	 *            polygon
+	 * @param envelope
+	 *            envelope to expand, null when not building
+	 * @param parts
+	 *            ring envelopes to build, null when not building
+	 * @return projected polygon
+	 */
+	private Polygon transform(Polygon polygon, GeometryEnvelope envelope,
+			List<GeometryEnvelope> parts) {
 
 		Polygon to = null;
 
@@ -424,9 +1345,13 @@ public class GeometryTransform extends ProjectionTransform {
 			to = new Polygon(polygon.hasZ(), polygon.hasM());
 		}
 
+		updateHasZandM(envelope, polygon);
+
 		for (LineString ring : polygon.getRings()) {
-			LineString toRing = transform(ring);
+			GeometryEnvelope partEnvelope = partEnvelope(envelope, parts);
+			LineString toRing = transform(ring, partEnvelope);
 			to.addRing(toRing);
+			mergeEnvelope(envelope, partEnvelope);
 		}
 
 		return to;
@@ -440,12 +1365,37 @@ public class GeometryTransform extends ProjectionTransform {
 	 * @return projected multi point
 	 */
 	public MultiPoint transform(MultiPoint multiPoint) {
+		return transform(multiPoint, null, null);
+	}
+
+	/**
+	 * Transform the projected multi point
+	 * 
+	 * @param multiPoint
+	 *            multi point
+	 * @param envelope
+	 *            envelope to expand, null when not building
+	 * @param parts
+	 *            point envelopes to build, null when not building
+	 * @return projected multi point
+	 */
+	private MultiPoint transform(MultiPoint multiPoint,
+			GeometryEnvelope envelope, List<GeometryEnvelope> parts) {
 
 		MultiPoint to = new MultiPoint(multiPoint.hasZ(), multiPoint.hasM());
 
+		updateHasZandM(envelope, multiPoint);
+
+		ProjCoordinate fromCoord = new ProjCoordinate();
+		ProjCoordinate toCoord = new ProjCoordinate();
+		PointKernel kernel = PointKernel.get(multiPoint);
+
 		for (Point point : multiPoint.getPoints()) {
-			Point toPoint = transform(point);
+			GeometryEnvelope partEnvelope = partEnvelope(envelope, parts);
+			Point toPoint = transform(point, kernel, fromCoord, toCoord,
+					partEnvelope);
 			to.addPoint(toPoint);
+			mergeEnvelope(envelope, partEnvelope);
 		}
 
 		return to;
@@ -459,13 +1409,33 @@ public class GeometryTransform extends ProjectionTransform {
 	 * @return projected multi line string
 	 */
 	public MultiLineString transform(MultiLineString multiLineString) {
+		return transform(multiLineString, null, null);
+	}
+
+	/**
+	 * Transform the projected multi line string
+	 * 
+	 * @param multiLineString
+	 *            multi line string
+	 * @param envelope
+	 *            envelope to expand, null when not building
+	 * @param parts
+	 *            line string envelopes to build, null when not building
+	 * @return projected multi line string
+	 */
+	private MultiLineString transform(MultiLineString multiLineString,
+			GeometryEnvelope envelope, List<GeometryEnvelope> parts) {
 
 		MultiLineString to = new MultiLineString(multiLineString.hasZ(),
 				multiLineString.hasM());
 
+		updateHasZandM(envelope, multiLineString);
+
 		for (LineString lineString : multiLineString.getLineStrings()) {
-			LineString toLineString = transform(lineString);
+			GeometryEnvelope partEnvelope = partEnvelope(envelope, parts);
+			LineString toLineString = transform(lineString, partEnvelope);
 			to.addLineString(toLineString);
+			mergeEnvelope(envelope, partEnvelope);
 		}
 
 		return to;
@@ -479,13 +1449,33 @@ public class GeometryTransform extends ProjectionTransform {
 	 * @return projected multi polygon
 	 */
 	public MultiPolygon transform(MultiPolygon multiPolygon) {
+		return transform(multiPolygon, null, null);
+	}
+
+	/**
+	 * Transform the projected multi polygon
+	 * 
+	 * @param multiPolygon
+	 *            multi polygon
+	 * @param envelope
+	 *            envelope to expand, null when not building
+	 * @param parts
+	 *            polygon envelopes to build, null when not building
+	 * @return projected multi polygon
+	 */
+	private MultiPolygon transform(MultiPolygon multiPolygon,
+			GeometryEnvelope envelope, List<GeometryEnvelope> parts) {
 
 		MultiPolygon to = new MultiPolygon(multiPolygon.hasZ(),
 				multiPolygon.hasM());
 
+		updateHasZandM(envelope, multiPolygon);
+
 		for (Polygon polygon : multiPolygon.getPolygons()) {
-			Polygon toPolygon = transform(polygon);
+			GeometryEnvelope partEnvelope = partEnvelope(envelope, parts);
+			Polygon toPolygon = transform(polygon, partEnvelope, null);
 			to.addPolygon(toPolygon);
+			mergeEnvelope(envelope, partEnvelope);
 		}
 
 		return to;
@@ -510,13 +1500,33 @@ public class GeometryTransform extends ProjectionTransform {
 	 * @return projected compound curve
 	 */
 	public CompoundCurve transform(CompoundCurve compoundCurve) {
+		return transform(compoundCurve, null, null);
+	}
+
+	/**
+	 * Transform the projected compound curve
+	 * 
+	 * @param compoundCurve
+	 *            compound curve
+	 * @param envelope
+	 *            envelope to expand, null when not building
+	 * @param parts
+	 *            line string envelopes to build, null when not building
+	 * @return projected compound curve
+	 */
+	private CompoundCurve transform(CompoundCurve compoundCurve,
+			GeometryEnvelope envelope, List<GeometryEnvelope> parts) {
 
 		CompoundCurve to = new CompoundCurve(compoundCurve.hasZ(),
 				compoundCurve.hasM());
 
+		updateHasZandM(envelope, compoundCurve);
+
 		for (LineString lineString : compoundCurve.getLineStrings()) {
-			LineString toLineString = transform(lineString);
+			GeometryEnvelope partEnvelope = partEnvelope(envelope, parts);
+			LineString toLineString = transform(lineString, partEnvelope);
 			to.addLineString(toLineString);
+			mergeEnvelope(envelope, partEnvelope);
 		}
 
 		return to;
@@ -533,25 +1543,50 @@ public class GeometryTransform extends ProjectionTransform {
 	 */
 	public <T extends Curve> CurvePolygon<T> transform(
 			CurvePolygon<T> curvePolygon) {
+		return transform(curvePolygon, null, null);
+	}
+
+	/**
+	 * Transform the projected curve polygon
+	 * 
+	 * @param curvePolygon
+	 *            curve polygon
+	 * @param envelope
+	 *            envelope to expand, null when not building
+	 * @param parts
+	 *            ring envelopes to build, null when not building
+	 * @param <T>
+	 *            curve type
+	 * @return projected curve polygon
+	 */
+	private <T extends Curve> CurvePolygon<T> transform(
+			CurvePolygon<T> curvePolygon, GeometryEnvelope envelope,
+			List<GeometryEnvelope> parts) {
 
 		CurvePolygon<T> to = new CurvePolygon<T>(curvePolygon.hasZ(),
 				curvePolygon.hasM());
 
+		updateHasZandM(envelope, curvePolygon);
+
 		for (T ring : curvePolygon.getRings()) {
 
+			GeometryEnvelope partEnvelope = partEnvelope(envelope, parts);
+
 			Curve toRing = null;
 
 			switch (ring.getGeometryType()) {
 			case COMPOUNDCURVE:
-				toRing = transform((CompoundCurve) ring);
+				toRing = transform((CompoundCurve) ring, partEnvelope, null);
 				break;
 			default:
-				toRing = transform((LineString) ring);
+				toRing = transform((LineString) ring, partEnvelope);
 			}
 
 			@SuppressWarnings("unchecked")
 			T typedToRing = (T) toRing;
 			to.addRing(typedToRing);
+
+			mergeEnvelope(envelope, partEnvelope);
 		}
 
 		return to;
@@ -565,6 +1600,22 @@ public class GeometryTransform extends ProjectionTransform {
 	 * @return projected polyhedral surface
 	 */
 	public PolyhedralSurface transform(PolyhedralSurface polyhedralSurface) {
+		return transform(polyhedralSurface, null, null);
+	}
+
+	/**
+	 * Transform the projected polyhedral surface
+	 * 
+	 * @param polyhedralSurface
+	 *            polyhedral surface
+	 * @param envelope
+	 *            envelope to expand, null when not building
+	 * @param parts
+	 *            polygon envelopes to build, null when not building
+	 * @return projected polyhedral surface
+	 */
+	private PolyhedralSurface transform(PolyhedralSurface polyhedralSurface,
+			GeometryEnvelope envelope, List<GeometryEnvelope> parts) {
 
 		PolyhedralSurface to = null;
 
@@ -577,9 +1628,13 @@ public class GeometryTransform extends ProjectionTransform {
 					polyhedralSurface.hasM());
 		}
 
+		updateHasZandM(envelope, polyhedralSurface);
+
 		for (Polygon polygon : polyhedralSurface.getPolygons()) {
-			Polygon toPolygon = transform(polygon);
+			GeometryEnvelope partEnvelope = partEnvelope(envelope, parts);
+			Polygon toPolygon = transform(polygon, partEnvelope, null);
 			to.addPolygon(toPolygon);
+			mergeEnvelope(envelope, partEnvelope);
 		}
 
 		return to;
@@ -616,16 +1671,509 @@ public class GeometryTransform extends ProjectionTransform {
 	 */
 	public GeometryCollection<Geometry> transform(
 			GeometryCollection<Geometry> geometryCollection) {
+		return transform(geometryCollection, null, null);
+	}
+
+	/**
+	 * Transform the projected geometry collection
+	 * 
+	 * @param geometryCollection
+	 *            geometry collection
+	 * @param envelope
+	 *            envelope to expand, null when not building
+	 * @param parts
+	 *            geometry envelopes to build, null when not building
+	 * @return projected geometry collection
+	 */
+	private GeometryCollection<Geometry> transform(
+			GeometryCollection<Geometry> geometryCollection,
+			GeometryEnvelope envelope, List<GeometryEnvelope> parts) {
 
 		GeometryCollection<Geometry> to = new GeometryCollection<Geometry>(
 				geometryCollection.hasZ(), geometryCollection.hasM());
 
+		updateHasZandM(envelope, geometryCollection);
+
 		for (Geometry geometry : geometryCollection.getGeometries()) {
-			Geometry toGeometry = transform(geometry);
+			GeometryEnvelope partEnvelope = partEnvelope(envelope, parts);
+			Geometry toGeometry = transform(geometry, partEnvelope, null);
 			to.addGeometry(toGeometry);
+			mergeEnvelope(envelope, partEnvelope);
 		}
 
 		return to;
 	}
 
+	/**
+	 * Transform the off heap coordinate buffer into a new coordinate buffer
+	 * 
+	 * @param from
+	 *            from coordinate buffer
+	 * @return projected coordinate buffer
+	 * @since 4.3.3
+	 */
+	public CoordinateBuffer transform(CoordinateBuffer from) {
+		CoordinateBuffer to = CoordinateBuffer.allocate(from.size(),
+				from.hasZ(), from.hasM());
+		transform(from, to);
+		return to;
+	}
+
+	/**
+	 * Transform the off heap coordinate buffer into another coordinate buffer
+	 * of the same size and dimensions. The buffers may be the same to
+	 * transform in place.
+	 * 
+	 * @param from
+	 *            from coordinate buffer
+	 * @param to
+	 *            projected coordinate buffer
+	 * @since 4.3.3
+	 */
+	public void transform(CoordinateBuffer from, CoordinateBuffer to) {
+
+		if (from.size() != to.size() || from.hasZ() != to.hasZ()
+				|| from.hasM() != to.hasM()) {
+			throw new SFException(
+					"Coordinate buffers must have the same size and dimensions. From size: "
+							+ from.size() + ", dimension: "
+							+ from.getDimension() + ", To size: " + to.size()
+							+ ", dimension: " + to.getDimension());
+		}
+
+		ProjCoordinate fromCoord = new ProjCoordinate();
+		ProjCoordinate toCoord = new ProjCoordinate();
+		boolean hasZ = from.hasZ();
+		boolean hasM = from.hasM();
+
+		for (int i = 0; i < from.size(); i++) {
+			fromCoord.x = from.getX(i);
+			fromCoord.y = from.getY(i);
+			fromCoord.z = from.getZ(i);
+			transform(fromCoord, toCoord);
+			to.setX(i, toCoord.x);
+			to.setY(i, toCoord.y);
+			if (hasZ) {
+				to.setZ(i, Double.isNaN(toCoord.z) ? fromCoord.z : toCoord.z);
+			}
+			if (hasM && from != to) {
+				to.setM(i, from.getM(i));
+			}
+		}
+
+	}
+
+	/**
+	 * Bulk transform the coordinates in place, recording failed coordinates
+	 * instead of throwing. Failed coordinates keep their source values so
+	 * they can be clamped or fixed up and retried in place.
+	 * 
+	 * @param x
+	 *            x coordinates
+	 * @param y
+	 *            y coordinates
+	 * @return transform failures
+	 * @since 4.3.3
+	 */
+	public TransformFailures transform(double[] x, double[] y) {
+		return transform(x, y, null);
+	}
+
+	/**
+	 * Bulk transform the coordinates in place, recording failed coordinates
+	 * instead of throwing. Failed coordinates keep their source values so
+	 * they can be clamped or fixed up and retried in place.
+	 * 
+	 * @param x
+	 *            x coordinates
+	 * @param y
+	 *            y coordinates
+	 * @param z
+	 *            z coordinates, null when not present
+	 * @return transform failures
+	 * @since 4.3.3
+	 */
+	public TransformFailures transform(double[] x, double[] y, double[] z) {
+		return transform(x, y, z, x, y, z);
+	}
+
+	/**
+	 * Bulk transform the coordinates into the output arrays, recording failed
+	 * coordinates instead of throwing. Failed output coordinates are set to
+	 * NaN in output arrays separate from their input arrays. The output arrays
+	 * may be the same as the input arrays to transform in place, leaving the
+	 * failed source values for retrying. Coordinates are dispatched to a
+	 * projection kernel when supported, see
+	 * {@link #setProjectionKernelEnabled(boolean)}.
+	 * 
+	 * @param fromX
+	 *            from x coordinates
+	 * @param fromY
+	 *            from y coordinates
+	 * @param fromZ
+	 *            from z coordinates, null when not present
+	 * @param toX
+	 *            projected x coordinates
+	 * @param toY
+	 *            projected y coordinates
+	 * @param toZ
+	 *            projected z coordinates, null to not output z
+	 * @return transform failures
+	 * @since 4.3.3
+	 */
+	public TransformFailures transform(double[] fromX, double[] fromY,
+			double[] fromZ, double[] toX, double[] toY, double[] toZ) {
+
+		validateBulk(fromX, fromY, fromZ, toX, toY, toZ);
+
+		TransformFailures failures = new TransformFailures(fromX.length);
+
+		ProjCoordinate fromCoord = new ProjCoordinate();
+		ProjCoordinate toCoord = new ProjCoordinate();
+
+		ProjectionKernel kernel = projectionKernelEnabled && cache == null
+				? getProjectionKernel()
+				: null;
+		if (kernel != null) {
+
+			BitSet remaining = kernel.transform(fromX, fromY, toX, toY);
+
+			if (toZ != null) {
+				for (int i = remaining.nextClearBit(0); i < fromX.length; i = remaining
+						.nextClearBit(i + 1)) {
+					toZ[i] = fromZ != null ? fromZ[i] : Double.NaN;
+				}
+			}
+
+			for (int i = remaining.nextSetBit(0); i >= 0; i = remaining
+					.nextSetBit(i + 1)) {
+				if (!transform(fromX, fromY, fromZ, toX, toY, toZ, i,
+						fromCoord, toCoord)) {
+					failures.setFailed(i);
+				}
+			}
+
+		} else {
+			for (int i = 0; i < fromX.length; i++) {
+				if (!transform(fromX, fromY, fromZ, toX, toY, toZ, i,
+						fromCoord, toCoord)) {
+					failures.setFailed(i);
+				}
+			}
+		}
+
+		return failures;
+	}
+
+	/**
+	 * Retry the failed coordinates of a bulk transform, such as after clamping
+	 * or fixing up the failed source coordinates. Coordinates that succeed are
+	 * cleared from the failures.
+	 * 
+	 * @param fromX
+	 *            from x coordinates
+	 * @param fromY
+	 *            from y coordinates
+	 * @param fromZ
+	 *            from z coordinates, null when not present
+	 * @param toX
+	 *            projected x coordinates
+	 * @param toY
+	 *            projected y coordinates
+	 * @param toZ
+	 *            projected z coordinates, null to not output z
+	 * @param failures
+	 *            transform failures to retry
+	 * @return transform failures
+	 * @since 4.3.3
+	 */
+	public TransformFailures retransform(double[] fromX, double[] fromY,
+			double[] fromZ, double[] toX, double[] toY, double[] toZ,
+			TransformFailures failures) {
+
+		validateBulk(fromX, fromY, fromZ, toX, toY, toZ);
+
+		ProjCoordinate fromCoord = new ProjCoordinate();
+		ProjCoordinate toCoord = new ProjCoordinate();
+
+		for (int i : failures.getIndices()) {
+			if (transform(fromX, fromY, fromZ, toX, toY, toZ, i, fromCoord,
+					toCoord)) {
+				failures.clearFailed(i);
+			}
+		}
+
+		return failures;
+	}
+
+	/**
+	 * Transform a single coordinate of a bulk transform
+	 * 
+	 * @param fromX
+	 *            from x coordinates
+	 * @param fromY
+	 *            from y coordinates
+	 * @param fromZ
+	 *            from z coordinates, null when not present
+	 * @param toX
+	 *            projected x coordinates
+	 * @param toY
+	 *            projected y coordinates
+	 * @param toZ
+	 *            projected z coordinates, null to not output z
+	 * @param index
+	 *            coordinate index
+	 * @param fromCoord
+	 *            reusable from coordinate
+	 * @param toCoord
+	 *            reusable result coordinate
+	 * @return true if transformed, false if failed
+	 */
+	private boolean transform(double[] fromX, double[] fromY, double[] fromZ,
+			double[] toX, double[] toY, double[] toZ, int index,
+			ProjCoordinate fromCoord, ProjCoordinate toCoord) {
+
+		fromCoord.x = fromX[index];
+		fromCoord.y = fromY[index];
+		fromCoord.z = fromZ != null ? fromZ[index] : Double.NaN;
+
+		boolean success;
+		try {
+			transform(fromCoord, toCoord);
+			success = Double.isFinite(toCoord.x)
+					&& Double.isFinite(toCoord.y);
+		} catch (Proj4jException e) {
+			success = false;
+		}
+
+		if (success) {
+			toX[index] = toCoord.x;
+			toY[index] = toCoord.y;
+			if (toZ != null) {
+				toZ[index] = Double.isNaN(toCoord.z) ? fromCoord.z
+						: toCoord.z;
+			}
+		} else {
+			if (toX != fromX) {
+				toX[index] = Double.NaN;
+			}
+			if (toY != fromY) {
+				toY[index] = Double.NaN;
+			}
+			if (toZ != null && toZ != fromZ) {
+				toZ[index] = Double.NaN;
+			}
+		}
+
+		return success;
+	}
+
+	/**
+	 * Validate the bulk transform array lengths
+	 * 
+	 * @param fromX
+	 *            from x coordinates
+	 * @param fromY
+	 *            from y coordinates
+	 * @param fromZ
+	 *            from z coordinates, null when not present
+	 * @param toX
+	 *            projected x coordinates
+	 * @param toY
+	 *            projected y coordinates
+	 * @param toZ
+	 *            projected z coordinates, null to not output z
+	 */
+	private static void validateBulk(double[] fromX, double[] fromY,
+			double[] fromZ, double[] toX, double[] toY, double[] toZ) {
+		int size = fromX.length;
+		if (fromY.length != size || (fromZ != null && fromZ.length != size)
+				|| toX.length != size || toY.length != size
+				|| (toZ != null && toZ.length != size)) {
+			throw new SFException(
+					"Bulk transform coordinate arrays must have the same length: "
+							+ size);
+		}
+	}
+
+	/**
+	 * Create an empty envelope to expand
+	 * 
+	 * @return envelope
+	 */
+	private static GeometryEnvelope createEnvelope() {
+		GeometryEnvelope envelope = new GeometryEnvelope();
+		envelope.setMinX(Double.MAX_VALUE);
+		envelope.setMaxX(-Double.MAX_VALUE);
+		envelope.setMinY(Double.MAX_VALUE);
+		envelope.setMaxY(-Double.MAX_VALUE);
+		return envelope;
+	}
+
+	/**
+	 * Get the envelope if it contains coordinates
+	 * 
+	 * @param envelope
+	 *            envelope
+	 * @return envelope or null if empty
+	 */
+	private static GeometryEnvelope validEnvelope(GeometryEnvelope envelope) {
+		if (envelope.getMinX() > envelope.getMaxX()
+				|| envelope.getMinY() > envelope.getMaxY()) {
+			envelope = null;
+		}
+		return envelope;
+	}
+
+	/**
+	 * Get the envelope to expand for a child part, creating and adding a new
+	 * part envelope when building part envelopes
+	 * 
+	 * @param envelope
+	 *            envelope to expand, null when not building
+	 * @param parts
+	 *            part envelopes, null when not building
+	 * @return part envelope
+	 */
+	private static GeometryEnvelope partEnvelope(GeometryEnvelope envelope,
+			List<GeometryEnvelope> parts) {
+		GeometryEnvelope partEnvelope = envelope;
+		if (parts != null) {
+			partEnvelope = createEnvelope();
+			parts.add(partEnvelope);
+		}
+		return partEnvelope;
+	}
+
+	/**
+	 * Merge a child part envelope into the envelope
+	 * 
+	 * @param envelope
+	 *            envelope to expand, null when not building
+	 * @param partEnvelope
+	 *            part envelope
+	 */
+	private static void mergeEnvelope(GeometryEnvelope envelope,
+			GeometryEnvelope partEnvelope) {
+		if (envelope != null && envelope != partEnvelope) {
+			envelope.setMinX(
+					Math.min(envelope.getMinX(), partEnvelope.getMinX()));
+			envelope.setMaxX(
+					Math.max(envelope.getMaxX(), partEnvelope.getMaxX()));
+			envelope.setMinY(
+					Math.min(envelope.getMinY(), partEnvelope.getMinY()));
+			envelope.setMaxY(
+					Math.max(envelope.getMaxY(), partEnvelope.getMaxY()));
+			if (partEnvelope.hasZ()) {
+				envelope.setHasZ(true);
+				envelope.setMinZ(
+						min(envelope.getMinZ(), partEnvelope.getMinZ()));
+				envelope.setMaxZ(
+						max(envelope.getMaxZ(), partEnvelope.getMaxZ()));
+			}
+			if (partEnvelope.hasM()) {
+				envelope.setHasM(true);
+				envelope.setMinM(
+						min(envelope.getMinM(), partEnvelope.getMinM()));
+				envelope.setMaxM(
+						max(envelope.getMaxM(), partEnvelope.getMaxM()));
+			}
+		}
+	}
+
+	/**
+	 * Update the envelope Z and M flags from the geometry
+	 * 
+	 * @param envelope
+	 *            envelope to expand, null when not building
+	 * @param geometry
+	 *            geometry
+	 */
+	private static void updateHasZandM(GeometryEnvelope envelope,
+			Geometry geometry) {
+		if (envelope != null) {
+			if (!envelope.hasZ() && geometry.hasZ()) {
+				envelope.setHasZ(true);
+			}
+			if (!envelope.hasM() && geometry.hasM()) {
+				envelope.setHasM(true);
+			}
+		}
+	}
+
+	/**
+	 * Expand the envelope with the projected point
+	 * 
+	 * @param envelope
+	 *            envelope
+	 * @param point
+	 *            projected point
+	 */
+	private static void expandEnvelope(GeometryEnvelope envelope,
+			Point point) {
+		updateHasZandM(envelope, point);
+		double x = point.getX();
+		double y = point.getY();
+		if (x < envelope.getMinX()) {
+			envelope.setMinX(x);
+		}
+		if (x > envelope.getMaxX()) {
+			envelope.setMaxX(x);
+		}
+		if (y < envelope.getMinY()) {
+			envelope.setMinY(y);
+		}
+		if (y > envelope.getMaxY()) {
+			envelope.setMaxY(y);
+		}
+		if (point.hasZ()) {
+			Double z = point.getZ();
+			if (z != null) {
+				envelope.setMinZ(min(envelope.getMinZ(), z));
+				envelope.setMaxZ(max(envelope.getMaxZ(), z));
+			}
+		}
+		if (point.hasM()) {
+			Double m = point.getM();
+			if (m != null) {
+				envelope.setMinM(min(envelope.getMinM(), m));
+				envelope.setMaxM(max(envelope.getMaxM(), m));
+			}
+		}
+	}
+
+	/**
+	 * Get the min of optional values
+	 * 
+	 * @param value1
+	 *            first value
+	 * @param value2
+	 *            second value
+	 * @return min value or null if both are null
+	 */
+	private static Double min(Double value1, Double value2) {
+		Double min = value1;
+		if (value2 != null && (min == null || value2 < min)) {
+			min = value2;
+		}
+		return min;
+	}
+
+	/**
+	 * Get the max of optional values
+	 * 
+	 * @param value1
+	 *            first value
+	 * @param value2
+	 *            second value
+	 * @return max value or null if both are null
+	 */
+	private static Double max(Double value1, Double value2) {
+		Double max = value1;
+		if (value2 != null && (max == null || value2 > max)) {
+			max = value2;
+		}
+		return max;
+	}
+
 }
@@ -0,0 +1,622 @@
+package mil.nga.sf.proj;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.locationtech.proj4j.units.Units;
+
+import mil.nga.proj.Projection;
+import mil.nga.proj.ProjectionFactory;
+import mil.nga.sf.CircularString;
+import mil.nga.sf.CompoundCurve;
+import mil.nga.sf.CurvePolygon;
+import mil.nga.sf.Geometry;
+import mil.nga.sf.GeometryCollection;
+import mil.nga.sf.GeometryEnvelope;
+import mil.nga.sf.LineString;
+import mil.nga.sf.MultiLineString;
+import mil.nga.sf.MultiPoint;
+import mil.nga.sf.MultiPolygon;
+import mil.nga.sf.Point;
+import mil.nga.sf.Polygon;
+import mil.nga.sf.PolyhedralSurface;
+import mil.nga.sf.TIN;
+import mil.nga.sf.Triangle;
+import mil.nga.sf.util.SFException;
+
+/**
+ * Geometry Transform Cache of transforms by projection pair, preloaded and
+ * warmed up at startup. Warming up a projection pair parses the projection
+ * definitions, builds and caches the transform, and runs a short synthetic
+ * batch of each geometry type and Z/M variant through the transform so the
+ * first requests are not slowed by projection parsing and cold JIT compiled
+ * code paths.
+ *
+ * Projection pairs are written as a from and to projection separated by
+ * whitespace, such as "EPSG:4326 EPSG:3857". Pair files contain one pair per
+ * line, ignoring blank lines and lines starting with '#'.
+ *
+ * The cache is thread safe. The cached transforms are shared by every caller
+ * and may transform concurrently only while left without a coordinate cache
+ * and with their resolution and kernel settings unchanged. Callers may memoize
+ * per call with
+ * {@link GeometryTransform#transformCached(Geometry, CoordinateCache)}, and
+ * callers needing simplification or other settings should use their own
+ * {@link GeometryTransform#copy()}, which keeps the projection kernel
+ * resolved while warming up.
+ *
+ * @author osbornb
+ * @since 4.3.3
+ */
+public class GeometryTransformCache {
+
+	/**
+	 * Default number of synthetic batch iterations per warm up
+	 */
+	public static final int DEFAULT_ITERATIONS = 100;
+
+	/**
+	 * Pair file comment prefix
+	 */
+	public static final String COMMENT = "#";
+
+	/**
+	 * Number of vertices per synthetic line string
+	 */
+	private static final int VERTICES = 64;
+
+	/**
+	 * Synthetic coordinate step in degrees for geographic projections
+	 */
+	private static final double DEGREE_STEP = 0.001;
+
+	/**
+	 * Synthetic coordinate step in meters for projected projections
+	 */
+	private static final double METER_STEP = 100.0;
+
+	/**
+	 * Cached transforms by from and to projection
+	 */
+	private final Map<Projection, Map<Projection, GeometryTransform>> transforms = new ConcurrentHashMap<>();
+
+	/**
+	 * Number of synthetic batch iterations per warm up
+	 */
+	private int iterations = DEFAULT_ITERATIONS;
+
+	/**
+	 * Constructor
+	 */
+	public GeometryTransformCache() {
+
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param iterations
+	 *            number of synthetic batch iterations per warm up
+	 */
+	public GeometryTransformCache(int iterations) {
+		setIterations(iterations);
+	}
+
+	/**
+	 * Get the number of synthetic batch iterations per warm up
+	 *
+	 * @return iterations
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Set the number of synthetic batch iterations per warm up
+	 *
+	 * @param iterations
+	 *            iterations, 0 to only preload transforms
+	 */
+	public void setIterations(int iterations) {
+		if (iterations < 0) {
+			throw new SFException(
+					"Iterations can not be negative: " + iterations);
+		}
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Get the cached transform, creating and caching it if needed. The
+	 * returned transform is shared, so its coordinate cache, resolution, and
+	 * kernel settings should not be changed. Use
+	 * {@link GeometryTransform#copy()} for a caller owned transform.
+	 *
+	 * @param fromProjection
+	 *            from projection
+	 * @param toProjection
+	 *            to projection
+	 * @return shared geometry transform
+	 */
+	public GeometryTransform getTransform(Projection fromProjection,
+			Projection toProjection) {
+		return transforms
+				.computeIfAbsent(fromProjection,
+						(projection) -> new ConcurrentHashMap<>())
+				.computeIfAbsent(toProjection,
+						(projection) -> GeometryTransform
+								.create(fromProjection, projection));
+	}
+
+	/**
+	 * Get the cached transform, creating and caching it if needed
+	 *
+	 * @param from
+	 *            from projection, as authority:code
+	 * @param to
+	 *            to projection, as authority:code
+	 * @return geometry transform
+	 */
+	public GeometryTransform getTransform(String from, String to) {
+		return getTransform(ProjectionFactory.getProjection(from),
+				ProjectionFactory.getProjection(to));
+	}
+
+	/**
+	 * Get the cached transform, creating and caching it if needed
+	 *
+	 * @param pair
+	 *            from and to projection pair, such as "EPSG:4326 EPSG:3857"
+	 * @return geometry transform
+	 */
+	public GeometryTransform getTransform(String pair) {
+		String[] projections = parsePair(pair);
+		return getTransform(projections[0], projections[1]);
+	}
+
+	/**
+	 * Check if the transform is cached
+	 *
+	 * @param fromProjection
+	 *            from projection
+	 * @param toProjection
+	 *            to projection
+	 * @return true if cached
+	 */
+	public boolean hasTransform(Projection fromProjection,
+			Projection toProjection) {
+		Map<Projection, GeometryTransform> toTransforms = transforms
+				.get(fromProjection);
+		return toTransforms != null && toTransforms.containsKey(toProjection);
+	}
+
+	/**
+	 * Get the number of cached transforms
+	 *
+	 * @return transform count
+	 */
+	public int size() {
+		int size = 0;
+		for (Map<Projection, GeometryTransform> toTransforms : transforms
+				.values()) {
+			size += toTransforms.size();
+		}
+		return size;
+	}
+
+	/**
+	 * Clear the cached transforms
+	 */
+	public void clear() {
+		transforms.clear();
+	}
+
+	/**
+	 * Preload and warm up the transform
+	 *
+	 * @param fromProjection
+	 *            from projection
+	 * @param toProjection
+	 *            to projection
+	 * @return warmed up transform
+	 */
+	public GeometryTransform warmUp(Projection fromProjection,
+			Projection toProjection) {
+		GeometryTransform transform = getTransform(fromProjection,
+				toProjection);
+		warmUp(transform, iterations);
+		return transform;
+	}
+
+	/**
+	 * Preload and warm up the transform
+	 *
+	 * @param from
+	 *            from projection, as authority:code
+	 * @param to
+	 *            to projection, as authority:code
+	 * @return warmed up transform
+	 */
+	public GeometryTransform warmUp(String from, String to) {
+		return warmUp(ProjectionFactory.getProjection(from),
+				ProjectionFactory.getProjection(to));
+	}
+
+	/**
+	 * Preload and warm up the transform
+	 *
+	 * @param pair
+	 *            from and to projection pair, such as "EPSG:4326 EPSG:3857"
+	 * @return warmed up transform
+	 */
+	public GeometryTransform warmUp(String pair) {
+		String[] projections = parsePair(pair);
+		return warmUp(projections[0], projections[1]);
+	}
+
+	/**
+	 * Preload and warm up the transforms. Each pair is warmed up independently,
+	 * so a failed pair does not stop the remaining pairs from being warmed up.
+	 *
+	 * @param pairs
+	 *            from and to projection pairs, such as "EPSG:4326 EPSG:3857"
+	 * @return warmed up transforms
+	 * @throws SFException
+	 *             after warming up the remaining pairs, listing the failed
+	 *             pairs with the first failure as the cause and the rest
+	 *             suppressed
+	 */
+	public List<GeometryTransform> warmUp(Collection<String> pairs) {
+		List<GeometryTransform> warmed = new ArrayList<>();
+		Map<String, RuntimeException> failures = new LinkedHashMap<>();
+		for (String pair : pairs) {
+			try {
+				warmed.add(warmUp(pair));
+			} catch (RuntimeException e) {
+				failures.put(pair, e);
+			}
+		}
+		if (!failures.isEmpty()) {
+			StringBuilder message = new StringBuilder(
+					"Failed to warm up " + failures.size() + " of "
+							+ pairs.size() + " projection pairs:");
+			for (Map.Entry<String, RuntimeException> failure : failures
+					.entrySet()) {
+				message.append(" [").append(failure.getKey()).append("] ")
+						.append(failure.getValue().getMessage()).append(';');
+			}
+			SFException exception = null;
+			for (RuntimeException failure : failures.values()) {
+				if (exception == null) {
+					exception = new SFException(message.toString(), failure);
+				} else {
+					exception.addSuppressed(failure);
+				}
+			}
+			throw exception;
+		}
+		return warmed;
+	}
+
+	/**
+	 * Preload and warm up the transforms of the projection pairs in the file
+	 *
+	 * @param file
+	 *            projection pairs file
+	 * @return warmed up transforms
+	 * @throws IOException
+	 *             upon failure to read the file
+	 */
+	public List<GeometryTransform> warmUp(File file) throws IOException {
+		try (InputStream stream = new FileInputStream(file)) {
+			return warmUp(stream);
+		}
+	}
+
+	/**
+	 * Preload and warm up the transforms of the projection pairs in the
+	 * stream
+	 *
+	 * @param stream
+	 *            projection pairs stream
+	 * @return warmed up transforms
+	 * @throws IOException
+	 *             upon failure to read the stream
+	 */
+	public List<GeometryTransform> warmUp(InputStream stream)
+			throws IOException {
+		return warmUp(readPairs(stream));
+	}
+
+	/**
+	 * Read the projection pairs from the stream, skipping blank lines and
+	 * comments
+	 *
+	 * @param stream
+	 *            projection pairs stream
+	 * @return projection pairs
+	 * @throws IOException
+	 *             upon failure to read the stream
+	 */
+	public static List<String> readPairs(InputStream stream)
+			throws IOException {
+		List<String> pairs = new ArrayList<>();
+		BufferedReader reader = new BufferedReader(
+				new InputStreamReader(stream, StandardCharsets.UTF_8));
+		String line;
+		while ((line = reader.readLine()) != null) {
+			line = line.trim();
+			if (!line.isEmpty() && !line.startsWith(COMMENT)) {
+				pairs.add(line);
+			}
+		}
+		return pairs;
+	}
+
+	/**
+	 * Parse the projection pair into the from and to projections
+	 *
+	 * @param pair
+	 *            from and to projection pair, such as "EPSG:4326 EPSG:3857"
+	 * @return from and to projections
+	 */
+	public static String[] parsePair(String pair) {
+		String[] projections = pair.trim().split("\\s+");
+		if (projections.length != 2) {
+			throw new SFException(
+					"Invalid projection pair, expected a from and to projection: "
+							+ pair);
+		}
+		return projections;
+	}
+
+	/**
+	 * Warm up the transform with a synthetic batch of each geometry type and
+	 * Z/M variant near the from projection origin, through the geometry,
+	 * envelope, lazy, coordinate buffer, and bulk transform paths. The
+	 * projection kernel is resolved on the transform, and the synthetic batch
+	 * runs on a copy without a coordinate cache, leaving the settings of a
+	 * shared transform untouched. Failed synthetic transforms are ignored.
+	 *
+	 * @param transform
+	 *            geometry transform
+	 * @param iterations
+	 *            synthetic batch iterations
+	 */
+	public static void warmUp(GeometryTransform transform, int iterations) {
+
+		transform.hasProjectionKernel();
+
+		if (iterations <= 0) {
+			return;
+		}
+
+		Projection projection = transform.getFromProjection();
+		double x;
+		double y;
+		double step;
+		if (projection.isUnit(Units.DEGREES)) {
+			x = projection.getCrs().getProjection()
+					.getProjectionLongitudeDegrees();
+			y = projection.getCrs().getProjection()
+					.getProjectionLatitudeDegrees();
+			step = DEGREE_STEP;
+		} else {
+			double unit = projection.toMeters(1.0);
+			x = projection.getCrs().getProjection().getFalseEasting() / unit;
+			y = projection.getCrs().getProjection().getFalseNorthing() / unit;
+			step = METER_STEP / unit;
+		}
+
+		List<Geometry> geometries = new ArrayList<>();
+		for (boolean hasZ : new boolean[] { false, true }) {
+			for (boolean hasM : new boolean[] { false, true }) {
+				addGeometries(geometries, x, y, step, hasZ, hasM);
+			}
+		}
+
+		GeometryEnvelope envelope = new GeometryEnvelope(x, y,
+				x + step * VERTICES, y + step * VERTICES);
+
+		double[] bulkX = new double[VERTICES];
+		double[] bulkY = new double[VERTICES];
+		double[] bulkZ = new double[VERTICES];
+		for (int i = 0; i < VERTICES; i++) {
+			bulkX[i] = x + step * i;
+			bulkY[i] = y + step * (i % 2);
+			bulkZ[i] = i;
+		}
+		CoordinateBuffer buffer = CoordinateBuffer.create(
+				createLineString(new LineString(true, true), x, y, step));
+
+		GeometryTransform copy = transform.copy();
+		for (int i = 0; i < iterations; i++) {
+			for (Geometry geometry : geometries) {
+				try {
+					copy.transform(geometry);
+					copy.transformWithEnvelope(geometry, true);
+					copy.transformLazy(geometry).getEnvelope();
+				} catch (RuntimeException e) {
+					// Ignore synthetic transform failures
+				}
+			}
+			try {
+				copy.transform(envelope);
+				copy.transform(buffer);
+				copy.transform(bulkX, bulkY, bulkZ, new double[VERTICES],
+						new double[VERTICES], new double[VERTICES]);
+			} catch (RuntimeException e) {
+				// Ignore synthetic transform failures
+			}
+		}
+
+	}
+
+	/**
+	 * Add a synthetic geometry of each geometry type
+	 *
+	 * @param geometries
+	 *            geometries to add to
+	 * @param x
+	 *            origin x
+	 * @param y
+	 *            origin y
+	 * @param step
+	 *            coordinate step
+	 * @param hasZ
+	 *            has z
+	 * @param hasM
+	 *            has m
+	 */
+	private static void addGeometries(List<Geometry> geometries, double x,
+			double y, double step, boolean hasZ, boolean hasM) {
+
+		geometries.add(createPoint(x, y, hasZ, hasM));
+
+		LineString lineString = createLineString(new LineString(hasZ, hasM),
+				x, y, step);
+		geometries.add(lineString);
+		geometries.add(createLineString(new CircularString(hasZ, hasM), x, y,
+				step));
+
+		Polygon polygon = new Polygon(hasZ, hasM);
+		polygon.addRing(createRing(x, y, step, hasZ, hasM));
+		geometries.add(polygon);
+
+		Triangle triangle = new Triangle(hasZ, hasM);
+		LineString triangleRing = new LineString(hasZ, hasM);
+		triangleRing.addPoint(createPoint(x, y, hasZ, hasM));
+		triangleRing.addPoint(createPoint(x + step, y, hasZ, hasM));
+		triangleRing.addPoint(createPoint(x, y + step, hasZ, hasM));
+		triangleRing.addPoint(createPoint(x, y, hasZ, hasM));
+		triangle.addRing(triangleRing);
+		geometries.add(triangle);
+
+		MultiPoint multiPoint = new MultiPoint(hasZ, hasM);
+		multiPoint.setPoints(lineString.getPoints());
+		geometries.add(multiPoint);
+
+		MultiLineString multiLineString = new MultiLineString(hasZ, hasM);
+		multiLineString.addLineString(lineString);
+		multiLineString.addLineString(lineString);
+		geometries.add(multiLineString);
+
+		MultiPolygon multiPolygon = new MultiPolygon(hasZ, hasM);
+		multiPolygon.addPolygon(polygon);
+		multiPolygon.addPolygon(polygon);
+		geometries.add(multiPolygon);
+
+		CompoundCurve compoundCurve = new CompoundCurve(hasZ, hasM);
+		compoundCurve.addLineString(lineString);
+		geometries.add(compoundCurve);
+
+		CurvePolygon<LineString> curvePolygon = new CurvePolygon<>(hasZ,
+				hasM);
+		curvePolygon.addRing(polygon.getExteriorRing());
+		geometries.add(curvePolygon);
+
+		PolyhedralSurface polyhedralSurface = new PolyhedralSurface(hasZ,
+				hasM);
+		polyhedralSurface.addPolygon(polygon);
+		geometries.add(polyhedralSurface);
+
+		TIN tin = new TIN(hasZ, hasM);
+		tin.addPolygon(triangle);
+		tin.addPolygon(triangle);
+		geometries.add(tin);
+
+		GeometryCollection<Geometry> geometryCollection = new GeometryCollection<>(
+				hasZ, hasM);
+		geometryCollection.addGeometry(lineString);
+		geometryCollection.addGeometry(polygon);
+		geometries.add(geometryCollection);
+	}
+
+	/**
+	 * Fill the synthetic line string with zig zag vertices from the origin
+	 *
+	 * @param lineString
+	 *            line string to fill
+	 * @param x
+	 *            origin x
+	 * @param y
+	 *            origin y
+	 * @param step
+	 *            coordinate step
+	 * @param <T>
+	 *            line string type
+	 * @return line string
+	 */
+	private static <T extends LineString> T createLineString(T lineString,
+			double x, double y, double step) {
+		for (int i = 0; i < VERTICES; i++) {
+			lineString.addPoint(createPoint(x + step * i, y + step * (i % 2),
+					lineString.hasZ(), lineString.hasM()));
+		}
+		return lineString;
+	}
+
+	/**
+	 * Create a synthetic closed ring around the origin
+	 *
+	 * @param x
+	 *            origin x
+	 * @param y
+	 *            origin y
+	 * @param step
+	 *            coordinate step
+	 * @param hasZ
+	 *            has z
+	 * @param hasM
+	 *            has m
+	 * @return ring
+	 */
+	private static LineString createRing(double x, double y, double step,
+			boolean hasZ, boolean hasM) {
+		LineString ring = new LineString(hasZ, hasM);
+		double radius = step * VERTICES / 8;
+		for (int i = 0; i < VERTICES - 1; i++) {
+			double angle = 2 * Math.PI * i / (VERTICES - 1);
+			ring.addPoint(createPoint(x + radius * Math.cos(angle),
+					y + radius * Math.sin(angle), hasZ, hasM));
+		}
+		ring.addPoint(new Point(ring.startPoint()));
+		return ring;
+	}
+
+	/**
+	 * Create a synthetic point
+	 *
+	 * @param x
+	 *            x
+	 * @param y
+	 *            y
+	 * @param hasZ
+	 *            has z
+	 * @param hasM
+	 *            has m
+	 * @return point
+	 */
+	private static Point createPoint(double x, double y, boolean hasZ,
+			boolean hasM) {
+		Point point = new Point(hasZ, hasM, x, y);
+		if (hasZ) {
+			point.setZ(10.0);
+		}
+		if (hasM) {
+			point.setM(1.0);
+		}
+		return point;
+	}
+
+}
@@ -0,0 +1,190 @@
+package mil.nga.sf.proj;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.Function;
+
+import mil.nga.sf.Geometry;
+
+/**
+ * Lazy Transform List of geometries projected when first accessed. Each
+ * source geometry is transformed on the first get of its index, cached, and
+ * the source reference released. Source geometries that are never accessed
+ * are never transformed. The list is modifiable, with added and set
+ * geometries stored as already projected and null geometries rejected, as null
+ * marks a geometry not yet projected. Replaced and removed geometries are
+ * returned as projected, transforming the source geometry only when it had
+ * not already been accessed.
+ *
+ * Lazy lists are created by {@link GeometryTransform#transformLazy(Geometry)}
+ * and transform with that geometry transform when accessed, sharing its
+ * thread safety and its current cache configuration.
+ *
+ * @param <T>
+ *            geometry type
+ *
+ * @author osbornb
+ * @since 4.3.3
+ */
+public class LazyTransformList<T extends Geometry> extends AbstractList<T>
+		implements RandomAccess {
+
+	/**
+	 * Source geometries, null once transformed or when added as projected
+	 */
+	private final List<T> source;
+
+	/**
+	 * Projected geometries, null until transformed
+	 */
+	private final List<T> projected;
+
+	/**
+	 * Transform function
+	 */
+	private final Function<T, T> function;
+
+	/**
+	 * Number of projected geometries
+	 */
+	private int transformed = 0;
+
+	/**
+	 * Constructor
+	 *
+	 * @param source
+	 *            source geometries
+	 * @param function
+	 *            transform function
+	 */
+	LazyTransformList(List<T> source, Function<T, T> function) {
+		this.source = new ArrayList<>(source);
+		this.projected = new ArrayList<>(source.size());
+		for (int i = 0; i < source.size(); i++) {
+			projected.add(null);
+		}
+		this.function = function;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public T get(int index) {
+		T geometry = projected.get(index);
+		if (geometry == null) {
+			geometry = function.apply(source.get(index));
+			projected.set(index, geometry);
+			source.set(index, null);
+			transformed++;
+		}
+		return geometry;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int size() {
+		return projected.size();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The replaced geometry is returned as already projected, or transformed
+	 * from its source geometry when not yet accessed. The list is unchanged
+	 * when the transform fails.
+	 */
+	@Override
+	public T set(int index, T element) {
+		Objects.requireNonNull(element, "Projected geometry may not be null");
+		T previous = projected.get(index);
+		if (previous == null) {
+			previous = function.apply(source.get(index));
+			source.set(index, null);
+			transformed++;
+		}
+		projected.set(index, element);
+		return previous;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void add(int index, T element) {
+		Objects.requireNonNull(element, "Projected geometry may not be null");
+		source.add(index, null);
+		projected.add(index, element);
+		transformed++;
+		modCount++;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * The removed geometry is returned as already projected, or transformed
+	 * from its source geometry when not yet accessed.
+	 */
+	@Override
+	public T remove(int index) {
+		T previous = projected.remove(index);
+		T sourceGeometry = source.remove(index);
+		if (previous == null) {
+			previous = function.apply(sourceGeometry);
+		} else {
+			transformed--;
+		}
+		modCount++;
+		return previous;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		for (int i = fromIndex; i < toIndex; i++) {
+			if (projected.get(i) != null) {
+				transformed--;
+			}
+		}
+		source.subList(fromIndex, toIndex).clear();
+		projected.subList(fromIndex, toIndex).clear();
+		modCount++;
+	}
+
+	/**
+	 * Check if the geometry at the index has been projected
+	 *
+	 * @param index
+	 *            geometry index
+	 * @return true if projected
+	 */
+	public boolean isTransformed(int index) {
+		return projected.get(index) != null;
+	}
+
+	/**
+	 * Get the number of projected geometries
+	 *
+	 * @return projected count
+	 */
+	public int numTransformed() {
+		return transformed;
+	}
+
+	/**
+	 * Check if all geometries have been projected
+	 *
+	 * @return true if fully projected
+	 */
+	public boolean isTransformed() {
+		return transformed == size();
+	}
+
+}
@@ -0,0 +1,201 @@
+package mil.nga.sf.proj;
+
+import org.locationtech.proj4j.ProjCoordinate;
+
+import mil.nga.sf.Geometry;
+import mil.nga.sf.Point;
+
+/**
+ * Point transform kernels specialized by Z and M values. A kernel is chosen
+ * once per geometry and reuses the provided coordinates for every point, only
+ * reading and writing the Z and M values the geometry has.
+ *
+ * @author osbornb
+ * @since 4.3.3
+ */
+enum PointKernel {
+
+	/**
+	 * XY points
+	 */
+	XY(false, false) {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Point transform(GeometryTransform transform, Point from,
+				ProjCoordinate fromCoord, ProjCoordinate toCoord) {
+			fromCoord.x = from.getX();
+			fromCoord.y = from.getY();
+			fromCoord.z = Double.NaN;
+			transform.transform(fromCoord, toCoord);
+			return new Point(false, false, toCoord.x, toCoord.y);
+		}
+
+	},
+
+	/**
+	 * XYZ points
+	 */
+	XYZ(true, false) {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Point transform(GeometryTransform transform, Point from,
+				ProjCoordinate fromCoord, ProjCoordinate toCoord) {
+			Double z = from.getZ();
+			fromCoord.x = from.getX();
+			fromCoord.y = from.getY();
+			fromCoord.z = z != null ? z : Double.NaN;
+			transform.transform(fromCoord, toCoord);
+			Point to = new Point(true, false, toCoord.x, toCoord.y);
+			to.setZ(toZ(z, toCoord));
+			return to;
+		}
+
+	},
+
+	/**
+	 * XYM points
+	 */
+	XYM(false, true) {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Point transform(GeometryTransform transform, Point from,
+				ProjCoordinate fromCoord, ProjCoordinate toCoord) {
+			fromCoord.x = from.getX();
+			fromCoord.y = from.getY();
+			fromCoord.z = Double.NaN;
+			transform.transform(fromCoord, toCoord);
+			Point to = new Point(false, true, toCoord.x, toCoord.y);
+			to.setM(from.getM());
+			return to;
+		}
+
+	},
+
+	/**
+	 * XYZM points
+	 */
+	XYZM(true, true) {
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		Point transform(GeometryTransform transform, Point from,
+				ProjCoordinate fromCoord, ProjCoordinate toCoord) {
+			Double z = from.getZ();
+			fromCoord.x = from.getX();
+			fromCoord.y = from.getY();
+			fromCoord.z = z != null ? z : Double.NaN;
+			transform.transform(fromCoord, toCoord);
+			Point to = new Point(true, true, toCoord.x, toCoord.y);
+			to.setZ(toZ(z, toCoord));
+			to.setM(from.getM());
+			return to;
+		}
+
+	};
+
+	/**
+	 * Has Z values
+	 */
+	private final boolean hasZ;
+
+	/**
+	 * Has M values
+	 */
+	private final boolean hasM;
+
+	/**
+	 * Constructor
+	 *
+	 * @param hasZ
+	 *            has z
+	 * @param hasM
+	 *            has m
+	 */
+	private PointKernel(boolean hasZ, boolean hasM) {
+		this.hasZ = hasZ;
+		this.hasM = hasM;
+	}
+
+	/**
+	 * Transform the point
+	 *
+	 * @param transform
+	 *            geometry transform
+	 * @param from
+	 *            from point
+	 * @param fromCoord
+	 *            reusable from coordinate
+	 * @param toCoord
+	 *            reusable result coordinate
+	 * @return projected point
+	 */
+	abstract Point transform(GeometryTransform transform, Point from,
+			ProjCoordinate fromCoord, ProjCoordinate toCoord);
+
+	/**
+	 * Check if the kernel matches the Z and M values of the point
+	 *
+	 * @param point
+	 *            point
+	 * @return true if matches
+	 */
+	boolean matches(Point point) {
+		return point.hasZ() == hasZ && point.hasM() == hasM;
+	}
+
+	/**
+	 * Get the kernel for the Z and M values of the geometry
+	 *
+	 * @param geometry
+	 *            geometry
+	 * @return point kernel
+	 */
+	static PointKernel get(Geometry geometry) {
+		return get(geometry.hasZ(), geometry.hasM());
+	}
+
+	/**
+	 * Get the kernel for the Z and M values
+	 *
+	 * @param hasZ
+	 *            has z
+	 * @param hasM
+	 *            has m
+	 * @return point kernel
+	 */
+	static PointKernel get(boolean hasZ, boolean hasM) {
+		PointKernel kernel;
+		if (hasZ) {
+			kernel = hasM ? XYZM : XYZ;
+		} else {
+			kernel = hasM ? XYM : XY;
+		}
+		return kernel;
+	}
+
+	/**
+	 * Get the projected Z value, falling back to the source Z value when the
+	 * projection does not produce one
+	 *
+	 * @param z
+	 *            source z
+	 * @param toCoord
+	 *            result coordinate
+	 * @return projected z
+	 */
+	private static Double toZ(Double z, ProjCoordinate toCoord) {
+		return Double.isNaN(toCoord.z) ? z : Double.valueOf(toCoord.z);
+	}
+
+}
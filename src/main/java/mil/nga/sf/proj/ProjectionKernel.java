@@ -0,0 +1,617 @@
+package mil.nga.sf.proj;
+
+import java.util.BitSet;
+
+import org.locationtech.proj4j.CoordinateReferenceSystem;
+import org.locationtech.proj4j.CoordinateTransform;
+import org.locationtech.proj4j.CoordinateTransformFactory;
+import org.locationtech.proj4j.Proj4jException;
+import org.locationtech.proj4j.ProjCoordinate;
+import org.locationtech.proj4j.proj.LongLatProjection;
+import org.locationtech.proj4j.proj.MercatorProjection;
+import org.locationtech.proj4j.proj.PlateCarreeProjection;
+import org.locationtech.proj4j.proj.Projection;
+import org.locationtech.proj4j.units.Units;
+import org.locationtech.proj4j.util.ProjectionMath;
+
+/**
+ * Projection Kernel for bulk transforms between geographic degrees and the
+ * Mercator or Equirectangular projections, where the general transform
+ * pipeline overhead outweighs the projection math. Coordinates are
+ * transformed in fixed size blocks of struct of arrays buffers, with each
+ * step a straight loop over primitive arrays instead of a per coordinate
+ * pass through the general transform pipeline. Coordinates
+ * the kernel does not handle, such as those outside of the source domain or
+ * with non finite results, are left for the general transform path.
+ *
+ * Kernels are only created when they match the general transform path at
+ * sample coordinates, covering datum, axis order, and prime meridian
+ * differences the kernel does not model.
+ *
+ * @author osbornb
+ * @since 4.3.3
+ */
+abstract class ProjectionKernel {
+
+	/**
+	 * Coordinates per block
+	 */
+	static final int BLOCK_SIZE = 256;
+
+	/**
+	 * Reusable struct of arrays block buffers per thread
+	 */
+	private static final ThreadLocal<double[][]> BLOCKS = ThreadLocal
+			.withInitial(() -> new double[4][BLOCK_SIZE]);
+
+	/**
+	 * Relative tolerance when validating against the general transform path
+	 */
+	private static final double TOLERANCE = 1.0e-9;
+
+	/**
+	 * Validation sample longitude offsets from the central meridian in
+	 * degrees
+	 */
+	private static final double[] SAMPLE_LONGITUDES = new double[] { -179.5,
+			-90.0, -45.0, -6.0, -2.5, -0.5, 0.0, 0.5, 2.5, 6.0, 45.0, 90.0,
+			179.5 };
+
+	/**
+	 * Validation sample latitudes in degrees
+	 */
+	private static final double[] SAMPLE_LATITUDES = new double[] { -89.0,
+			-80.0, -60.0, -30.0, -1.0, 0.0, 1.0, 30.0, 60.0, 80.0, 89.0 };
+
+	/**
+	 * Validation sample z value
+	 */
+	private static final double SAMPLE_Z = 100.0;
+
+	/**
+	 * True when projecting geographic degrees, false when inverse projecting
+	 * to geographic degrees
+	 */
+	private final boolean forward;
+
+	/**
+	 * Central meridian in radians
+	 */
+	private final double lon0;
+
+	/**
+	 * Scale from the unit ellipsoid to projected units
+	 */
+	private final double totalScale;
+
+	/**
+	 * False easting in projected units
+	 */
+	private final double totalFalseEasting;
+
+	/**
+	 * False northing in projected units
+	 */
+	private final double totalFalseNorthing;
+
+	/**
+	 * Create a validated kernel for the transform
+	 *
+	 * @param from
+	 *            from coordinate reference system
+	 * @param to
+	 *            to coordinate reference system
+	 * @param transform
+	 *            general coordinate transform
+	 * @return kernel, null if no kernel matches the transform
+	 */
+	static ProjectionKernel create(CoordinateReferenceSystem from,
+			CoordinateReferenceSystem to, CoordinateTransform transform) {
+
+		ProjectionKernel kernel = null;
+
+		Projection fromProjection = from.getProjection();
+		Projection toProjection = to.getProjection();
+		if (isGeographic(fromProjection)) {
+			kernel = create(toProjection, true);
+		} else if (isGeographic(toProjection)) {
+			kernel = create(fromProjection, false);
+		}
+
+		if (kernel != null && !kernel.validate(transform)) {
+			kernel = null;
+		}
+
+		return kernel;
+	}
+
+	/**
+	 * Check if the projection is geographic in degrees
+	 *
+	 * @param projection
+	 *            projection
+	 * @return true if geographic degrees
+	 */
+	private static boolean isGeographic(Projection projection) {
+		return projection.getClass() == LongLatProjection.class
+				&& Units.DEGREES.equals(projection.getUnits());
+	}
+
+	/**
+	 * Create a kernel for the projection
+	 *
+	 * @param projection
+	 *            projection
+	 * @param forward
+	 *            true to project geographic degrees, false to inverse project
+	 * @return kernel, null if not supported
+	 */
+	private static ProjectionKernel create(Projection projection,
+			boolean forward) {
+
+		ProjectionKernel kernel = null;
+
+		double es = projection.getEllipsoid().getEccentricitySquared();
+		Class<?> type = projection.getClass();
+		if (type == MercatorProjection.class) {
+			kernel = new Mercator(projection, forward, es);
+		} else if (type == PlateCarreeProjection.class) {
+			kernel = new Equirectangular(projection, forward);
+		}
+
+		return kernel;
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param projection
+	 *            projection
+	 * @param forward
+	 *            true to project geographic degrees, false to inverse project
+	 */
+	protected ProjectionKernel(Projection projection, boolean forward) {
+		this.forward = forward;
+		this.lon0 = projection.getProjectionLongitude();
+		this.totalScale = projection.getEquatorRadius()
+				* projection.getFromMetres();
+		this.totalFalseEasting = projection.getFalseEasting()
+				* projection.getFromMetres();
+		this.totalFalseNorthing = projection.getFalseNorthing()
+				* projection.getFromMetres();
+	}
+
+	/**
+	 * Check if the kernel projects geographic degrees
+	 *
+	 * @return true if forward, false if inverse
+	 */
+	boolean isForward() {
+		return forward;
+	}
+
+	/**
+	 * Transform the coordinates the kernel handles into the output arrays,
+	 * leaving the remaining coordinates unmodified for the general transform
+	 * path. The output arrays may be the same as the input arrays.
+	 *
+	 * @param fromX
+	 *            from x coordinates
+	 * @param fromY
+	 *            from y coordinates
+	 * @param toX
+	 *            projected x coordinates
+	 * @param toY
+	 *            projected y coordinates
+	 * @return indices of coordinates requiring the general transform path
+	 */
+	BitSet transform(double[] fromX, double[] fromY, double[] toX,
+			double[] toY) {
+
+		BitSet remaining = new BitSet();
+
+		double[][] blocks = BLOCKS.get();
+		double[] u = blocks[0];
+		double[] v = blocks[1];
+		double[] p = blocks[2];
+		double[] q = blocks[3];
+
+		for (int start = 0; start < fromX.length; start += BLOCK_SIZE) {
+
+			int length = Math.min(BLOCK_SIZE, fromX.length - start);
+
+			if (forward) {
+				toRadians(fromX, fromY, start, length, u, v);
+				project(u, v, p, q, length);
+				toProjected(p, q, length);
+			} else {
+				toUnit(fromX, fromY, start, length, u, v);
+				projectInverse(u, v, p, q, length);
+				toDegrees(p, q, length);
+			}
+
+			for (int i = 0; i < length; i++) {
+				if (Double.isFinite(p[i]) && Double.isFinite(q[i])) {
+					toX[start + i] = p[i];
+					toY[start + i] = q[i];
+				} else {
+					remaining.set(start + i);
+				}
+			}
+		}
+
+		return remaining;
+	}
+
+	/**
+	 * Convert a block of geographic degrees to radians relative to the
+	 * central meridian. Coordinates outside of the geographic domain are set
+	 * to NaN for the general transform path.
+	 *
+	 * @param fromX
+	 *            longitudes
+	 * @param fromY
+	 *            latitudes
+	 * @param start
+	 *            block start index
+	 * @param length
+	 *            block length
+	 * @param lam
+	 *            longitude radians
+	 * @param phi
+	 *            latitude radians
+	 */
+	private void toRadians(double[] fromX, double[] fromY, int start,
+			int length, double[] lam, double[] phi) {
+		for (int i = 0; i < length; i++) {
+			double x = fromX[start + i];
+			double y = fromY[start + i];
+			boolean domain = x >= -180.0 && x <= 180.0 && y >= -90.0
+					&& y <= 90.0;
+			lam[i] = domain ? x * ProjectionMath.DTR : Double.NaN;
+			phi[i] = y * ProjectionMath.DTR;
+		}
+		if (lon0 != 0) {
+			for (int i = 0; i < length; i++) {
+				lam[i] = normalizeLongitude(lam[i] - lon0);
+			}
+		}
+	}
+
+	/**
+	 * Convert a block of unit ellipsoid coordinates to projected units
+	 *
+	 * @param x
+	 *            x coordinates
+	 * @param y
+	 *            y coordinates
+	 * @param length
+	 *            block length
+	 */
+	private void toProjected(double[] x, double[] y, int length) {
+		for (int i = 0; i < length; i++) {
+			x[i] = totalScale * x[i] + totalFalseEasting;
+			y[i] = totalScale * y[i] + totalFalseNorthing;
+		}
+	}
+
+	/**
+	 * Convert a block of projected coordinates to the unit ellipsoid
+	 *
+	 * @param fromX
+	 *            x coordinates
+	 * @param fromY
+	 *            y coordinates
+	 * @param start
+	 *            block start index
+	 * @param length
+	 *            block length
+	 * @param x
+	 *            unit x coordinates
+	 * @param y
+	 *            unit y coordinates
+	 */
+	private void toUnit(double[] fromX, double[] fromY, int start, int length,
+			double[] x, double[] y) {
+		for (int i = 0; i < length; i++) {
+			x[i] = (fromX[start + i] - totalFalseEasting) / totalScale;
+			y[i] = (fromY[start + i] - totalFalseNorthing) / totalScale;
+		}
+	}
+
+	/**
+	 * Convert a block of radians relative to the central meridian to
+	 * geographic degrees
+	 *
+	 * @param lam
+	 *            longitude radians
+	 * @param phi
+	 *            latitude radians
+	 * @param length
+	 *            block length
+	 */
+	private void toDegrees(double[] lam, double[] phi, int length) {
+		for (int i = 0; i < length; i++) {
+			lam[i] = Math.max(-ProjectionMath.PI,
+					Math.min(ProjectionMath.PI, lam[i]));
+		}
+		if (lon0 != 0) {
+			for (int i = 0; i < length; i++) {
+				lam[i] = normalizeLongitude(lam[i] + lon0);
+			}
+		}
+		for (int i = 0; i < length; i++) {
+			lam[i] *= ProjectionMath.RTD;
+			phi[i] *= ProjectionMath.RTD;
+		}
+	}
+
+	/**
+	 * Normalize a longitude to the range of -PI to PI radians
+	 *
+	 * @param lam
+	 *            longitude radians
+	 * @return normalized longitude, NaN if not finite
+	 */
+	private static double normalizeLongitude(double lam) {
+		return Double.isFinite(lam) ? ProjectionMath.normalizeLongitude(lam)
+				: Double.NaN;
+	}
+
+	/**
+	 * Project a block of radians to the unit ellipsoid, setting unsupported
+	 * coordinates to NaN
+	 *
+	 * @param lam
+	 *            longitude radians relative to the central meridian
+	 * @param phi
+	 *            latitude radians
+	 * @param x
+	 *            unit x coordinates
+	 * @param y
+	 *            unit y coordinates
+	 * @param length
+	 *            block length
+	 */
+	protected abstract void project(double[] lam, double[] phi, double[] x,
+			double[] y, int length);
+
+	/**
+	 * Inverse project a block of unit ellipsoid coordinates to radians,
+	 * setting unsupported coordinates to NaN
+	 *
+	 * @param x
+	 *            unit x coordinates
+	 * @param y
+	 *            unit y coordinates
+	 * @param lam
+	 *            longitude radians relative to the central meridian
+	 * @param phi
+	 *            latitude radians
+	 * @param length
+	 *            block length
+	 */
+	protected abstract void projectInverse(double[] x, double[] y,
+			double[] lam, double[] phi, int length);
+
+	/**
+	 * Validate the kernel against the general transform path at sample
+	 * coordinates
+	 *
+	 * @param transform
+	 *            general coordinate transform
+	 * @return true if the kernel matches the general transform path
+	 */
+	private boolean validate(CoordinateTransform transform) {
+
+		double lon0Degrees = lon0 * ProjectionMath.RTD;
+		int size = SAMPLE_LONGITUDES.length * SAMPLE_LATITUDES.length;
+		double[] fromX = new double[size];
+		double[] fromY = new double[size];
+		int index = 0;
+		for (double longitude : SAMPLE_LONGITUDES) {
+			double x = lon0Degrees + longitude;
+			if (x > 180.0) {
+				x -= 360.0;
+			} else if (x < -180.0) {
+				x += 360.0;
+			}
+			for (double latitude : SAMPLE_LATITUDES) {
+				fromX[index] = x;
+				fromY[index] = latitude;
+				index++;
+			}
+		}
+
+		if (!forward) {
+			// Inverse samples are projected through the inverse transform
+			CoordinateTransform inverse = new CoordinateTransformFactory()
+					.createTransform(transform.getTargetCRS(),
+							transform.getSourceCRS());
+			for (int i = 0; i < size; i++) {
+				ProjCoordinate projected = transform(inverse, fromX[i],
+						fromY[i]);
+				fromX[i] = projected != null ? projected.x : Double.NaN;
+				fromY[i] = projected != null ? projected.y : Double.NaN;
+			}
+		}
+
+		double[] toX = new double[size];
+		double[] toY = new double[size];
+		BitSet remaining = transform(fromX, fromY, toX, toY);
+
+		boolean valid = true;
+		int compared = 0;
+		for (int i = 0; valid && i < size; i++) {
+			if (Double.isNaN(fromX[i]) || Double.isNaN(fromY[i])) {
+				continue;
+			}
+			ProjCoordinate expected = transform(transform, fromX[i],
+					fromY[i]);
+			if (remaining.get(i)) {
+				continue;
+			}
+			valid = expected != null && equals(expected.x, toX[i])
+					&& equals(expected.y, toY[i])
+					&& (Double.isNaN(expected.z) || expected.z == SAMPLE_Z);
+			compared++;
+		}
+
+		return valid && compared > size / 2;
+	}
+
+	/**
+	 * Transform a sample coordinate through the general transform path
+	 *
+	 * @param transform
+	 *            coordinate transform
+	 * @param x
+	 *            x coordinate
+	 * @param y
+	 *            y coordinate
+	 * @return transformed coordinate, null if failed
+	 */
+	private static ProjCoordinate transform(CoordinateTransform transform,
+			double x, double y) {
+		ProjCoordinate to = new ProjCoordinate();
+		try {
+			transform.transform(new ProjCoordinate(x, y, SAMPLE_Z), to);
+		} catch (Proj4jException e) {
+			to = null;
+		}
+		if (to != null && (!Double.isFinite(to.x) || !Double.isFinite(to.y))) {
+			to = null;
+		}
+		return to;
+	}
+
+	/**
+	 * Check if the kernel value matches the expected value within tolerance
+	 *
+	 * @param expected
+	 *            expected value
+	 * @param value
+	 *            kernel value
+	 * @return true if equal within tolerance
+	 */
+	private static boolean equals(double expected, double value) {
+		return Math.abs(expected - value) <= TOLERANCE
+				* Math.max(1.0, Math.abs(expected));
+	}
+
+	/**
+	 * Mercator kernel
+	 */
+	private static class Mercator extends ProjectionKernel {
+
+		/**
+		 * Scale factor
+		 */
+		private final double k0;
+
+		/**
+		 * Eccentricity
+		 */
+		private final double e;
+
+		/**
+		 * Constructor
+		 *
+		 * @param projection
+		 *            projection
+		 * @param forward
+		 *            true to project geographic degrees
+		 * @param es
+		 *            eccentricity squared
+		 */
+		Mercator(Projection projection, boolean forward, double es) {
+			super(projection, forward);
+			this.k0 = projection.getScaleFactor();
+			this.e = Math.sqrt(es);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected void project(double[] lam, double[] phi, double[] x,
+				double[] y, int length) {
+			for (int i = 0; i < length; i++) {
+				x[i] = k0 * lam[i];
+			}
+			if (e == 0) {
+				for (int i = 0; i < length; i++) {
+					y[i] = k0 * Math.log(
+							Math.tan(ProjectionMath.QUARTERPI + 0.5 * phi[i]));
+				}
+			} else {
+				for (int i = 0; i < length; i++) {
+					y[i] = -k0 * Math.log(ProjectionMath.tsfn(phi[i],
+							Math.sin(phi[i]), e));
+				}
+			}
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected void projectInverse(double[] x, double[] y, double[] lam,
+				double[] phi, int length) {
+			if (e == 0) {
+				for (int i = 0; i < length; i++) {
+					phi[i] = ProjectionMath.HALFPI
+							- 2.0 * Math.atan(Math.exp(-y[i] / k0));
+				}
+			} else {
+				for (int i = 0; i < length; i++) {
+					phi[i] = ProjectionMath.phi2(Math.exp(-y[i] / k0), e);
+				}
+			}
+			for (int i = 0; i < length; i++) {
+				lam[i] = x[i] / k0;
+			}
+		}
+
+	}
+
+	/**
+	 * Equirectangular (Plate Carree) kernel
+	 */
+	private static class Equirectangular extends ProjectionKernel {
+
+		/**
+		 * Constructor
+		 *
+		 * @param projection
+		 *            projection
+		 * @param forward
+		 *            true to project geographic degrees
+		 */
+		Equirectangular(Projection projection, boolean forward) {
+			super(projection, forward);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected void project(double[] lam, double[] phi, double[] x,
+				double[] y, int length) {
+			System.arraycopy(lam, 0, x, 0, length);
+			System.arraycopy(phi, 0, y, 0, length);
+		}
+
+		/**
+		 * {@inheritDoc}
+		 */
+		@Override
+		protected void projectInverse(double[] x, double[] y, double[] lam,
+				double[] phi, int length) {
+			System.arraycopy(x, 0, lam, 0, length);
+			System.arraycopy(y, 0, phi, 0, length);
+		}
+
+	}
+
+}
@@ -0,0 +1,333 @@
+package mil.nga.sf.proj;
+
+import mil.nga.sf.GeometryEnvelope;
+import mil.nga.sf.util.SFException;
+
+/**
+ * Tile Grid definition of a tile matrix pyramid in the source projection. The
+ * grid has a top left origin and a tile matrix size and tile size at the min
+ * zoom level. Each higher zoom level doubles the matrix width and height and
+ * halves the tile width and height. Rows increase downward from the origin.
+ *
+ * @author osbornb
+ * @since 4.3.3
+ */
+public class TileGrid {
+
+	/**
+	 * Top left origin x
+	 */
+	private final double originX;
+
+	/**
+	 * Top left origin y
+	 */
+	private final double originY;
+
+	/**
+	 * Tile width at the min zoom level
+	 */
+	private final double tileWidth;
+
+	/**
+	 * Tile height at the min zoom level
+	 */
+	private final double tileHeight;
+
+	/**
+	 * Matrix width at the min zoom level
+	 */
+	private final int matrixWidth;
+
+	/**
+	 * Matrix height at the min zoom level
+	 */
+	private final int matrixHeight;
+
+	/**
+	 * Min zoom level
+	 */
+	private final int minZoom;
+
+	/**
+	 * Max zoom level
+	 */
+	private final int maxZoom;
+
+	/**
+	 * Constructor
+	 *
+	 * @param bounds
+	 *            grid bounds
+	 * @param matrixWidth
+	 *            matrix width at the min zoom level
+	 * @param matrixHeight
+	 *            matrix height at the min zoom level
+	 * @param minZoom
+	 *            min zoom level
+	 * @param maxZoom
+	 *            max zoom level
+	 */
+	public TileGrid(GeometryEnvelope bounds, int matrixWidth,
+			int matrixHeight, int minZoom, int maxZoom) {
+		this(bounds.getMinX(), bounds.getMaxY(),
+				bounds.getXRange() / matrixWidth,
+				bounds.getYRange() / matrixHeight, matrixWidth, matrixHeight,
+				minZoom, maxZoom);
+	}
+
+	/**
+	 * Constructor
+	 *
+	 * @param originX
+	 *            top left origin x
+	 * @param originY
+	 *            top left origin y
+	 * @param tileWidth
+	 *            tile width at the min zoom level
+	 * @param tileHeight
+	 *            tile height at the min zoom level
+	 * @param matrixWidth
+	 *            matrix width at the min zoom level
+	 * @param matrixHeight
+	 *            matrix height at the min zoom level
+	 * @param minZoom
+	 *            min zoom level
+	 * @param maxZoom
+	 *            max zoom level
+	 */
+	public TileGrid(double originX, double originY, double tileWidth,
+			double tileHeight, int matrixWidth, int matrixHeight, int minZoom,
+			int maxZoom) {
+		if (tileWidth <= 0 || tileHeight <= 0) {
+			throw new SFException("Tile width and height must be positive. "
+					+ "Width: " + tileWidth + ", Height: " + tileHeight);
+		}
+		if (matrixWidth <= 0 || matrixHeight <= 0) {
+			throw new SFException("Matrix width and height must be positive. "
+					+ "Width: " + matrixWidth + ", Height: " + matrixHeight);
+		}
+		if (minZoom < 0 || maxZoom < minZoom) {
+			throw new SFException("Invalid zoom range. Min: " + minZoom
+					+ ", Max: " + maxZoom);
+		}
+		if (maxZoom - minZoom >= Integer.SIZE - 1
+				|| ((long) Math.max(matrixWidth, matrixHeight)
+						<< (maxZoom - minZoom)) > Integer.MAX_VALUE) {
+			throw new SFException(
+					"Matrix size exceeds the max tiles per row or column at max zoom "
+							+ maxZoom);
+		}
+		this.originX = originX;
+		this.originY = originY;
+		this.tileWidth = tileWidth;
+		this.tileHeight = tileHeight;
+		this.matrixWidth = matrixWidth;
+		this.matrixHeight = matrixHeight;
+		this.minZoom = minZoom;
+		this.maxZoom = maxZoom;
+	}
+
+	/**
+	 * Get the top left origin x
+	 *
+	 * @return origin x
+	 */
+	public double getOriginX() {
+		return originX;
+	}
+
+	/**
+	 * Get the top left origin y
+	 *
+	 * @return origin y
+	 */
+	public double getOriginY() {
+		return originY;
+	}
+
+	/**
+	 * Get the min zoom level
+	 *
+	 * @return min zoom
+	 */
+	public int getMinZoom() {
+		return minZoom;
+	}
+
+	/**
+	 * Get the max zoom level
+	 *
+	 * @return max zoom
+	 */
+	public int getMaxZoom() {
+		return maxZoom;
+	}
+
+	/**
+	 * Get the matrix width at the zoom level
+	 *
+	 * @param zoom
+	 *            zoom level
+	 * @return number of tile columns
+	 */
+	public int getMatrixWidth(int zoom) {
+		return matrixWidth << levels(zoom);
+	}
+
+	/**
+	 * Get the matrix height at the zoom level
+	 *
+	 * @param zoom
+	 *            zoom level
+	 * @return number of tile rows
+	 */
+	public int getMatrixHeight(int zoom) {
+		return matrixHeight << levels(zoom);
+	}
+
+	/**
+	 * Get the tile width at the zoom level
+	 *
+	 * @param zoom
+	 *            zoom level
+	 * @return tile width
+	 */
+	public double getTileWidth(int zoom) {
+		return tileWidth / (1L << levels(zoom));
+	}
+
+	/**
+	 * Get the tile height at the zoom level
+	 *
+	 * @param zoom
+	 *            zoom level
+	 * @return tile height
+	 */
+	public double getTileHeight(int zoom) {
+		return tileHeight / (1L << levels(zoom));
+	}
+
+	/**
+	 * Get the tile column containing the x coordinate at the zoom level,
+	 * clamped to the matrix
+	 *
+	 * @param x
+	 *            x coordinate
+	 * @param zoom
+	 *            zoom level
+	 * @return tile column
+	 */
+	public int getTileColumn(double x, int zoom) {
+		double column = Math.floor((x - originX) / getTileWidth(zoom));
+		return (int) Math.max(0,
+				Math.min(getMatrixWidth(zoom) - 1, column));
+	}
+
+	/**
+	 * Get the tile row containing the y coordinate at the zoom level, clamped
+	 * to the matrix
+	 *
+	 * @param y
+	 *            y coordinate
+	 * @param zoom
+	 *            zoom level
+	 * @return tile row
+	 */
+	public int getTileRow(double y, int zoom) {
+		double row = Math.floor((originY - y) / getTileHeight(zoom));
+		return (int) Math.max(0, Math.min(getMatrixHeight(zoom) - 1, row));
+	}
+
+	/**
+	 * Get the tile column containing the max x coordinate of a range at the
+	 * zoom level, clamped to the matrix. An x on a tile edge belongs to the
+	 * tile to its left, so the max edge is exclusive.
+	 *
+	 * @param x
+	 *            max x coordinate
+	 * @param zoom
+	 *            zoom level
+	 * @return tile column
+	 */
+	public int getMaxTileColumn(double x, int zoom) {
+		double column = Math.ceil((x - originX) / getTileWidth(zoom)) - 1;
+		return (int) Math.max(0,
+				Math.min(getMatrixWidth(zoom) - 1, column));
+	}
+
+	/**
+	 * Get the tile row containing the min y coordinate of a range at the zoom
+	 * level, clamped to the matrix. A y on a tile edge belongs to the tile
+	 * above it, so the max row edge is exclusive.
+	 *
+	 * @param y
+	 *            min y coordinate
+	 * @param zoom
+	 *            zoom level
+	 * @return tile row
+	 */
+	public int getMaxTileRow(double y, int zoom) {
+		double row = Math.ceil((originY - y) / getTileHeight(zoom)) - 1;
+		return (int) Math.max(0, Math.min(getMatrixHeight(zoom) - 1, row));
+	}
+
+	/**
+	 * Get the tile envelope in the source projection
+	 *
+	 * @param column
+	 *            tile column
+	 * @param row
+	 *            tile row
+	 * @param zoom
+	 *            zoom level
+	 * @return tile envelope
+	 */
+	public GeometryEnvelope getEnvelope(int column, int row, int zoom) {
+		return new GeometryEnvelope(getX(column, zoom), getY(row + 1, zoom),
+				getX(column + 1, zoom), getY(row, zoom));
+	}
+
+	/**
+	 * Get the x coordinate of a fractional tile column edge at the zoom level
+	 *
+	 * @param column
+	 *            tile column, fractional for positions within a tile
+	 * @param zoom
+	 *            zoom level
+	 * @return x coordinate
+	 */
+	public double getX(double column, int zoom) {
+		return originX + column * getTileWidth(zoom);
+	}
+
+	/**
+	 * Get the y coordinate of a fractional tile row edge at the zoom level
+	 *
+	 * @param row
+	 *            tile row, fractional for positions within a tile
+	 * @param zoom
+	 *            zoom level
+	 * @return y coordinate
+	 */
+	public double getY(double row, int zoom) {
+		return originY - row * getTileHeight(zoom);
+	}
+
+	/**
+	 * Get the number of zoom levels above the min zoom, validating the zoom
+	 *
+	 * @param zoom
+	 *            zoom level
+	 * @return levels above the min zoom
+	 */
+	private int levels(int zoom) {
+		if (zoom < minZoom || zoom > maxZoom) {
+			throw new SFException("Zoom level " + zoom
+					+ " is outside of the grid range. Min: " + minZoom
+					+ ", Max: " + maxZoom);
+		}
+		return zoom - minZoom;
+	}
+
+}
@@ -0,0 +1,473 @@
+package mil.nga.sf.proj;
+
+import java.util.AbstractList;
+import java.util.List;
+
+import mil.nga.sf.GeometryEnvelope;
+import mil.nga.sf.util.SFException;
+
+/**
+ * Tile Grid Envelopes, a lazy indexed view of projected tile envelopes for a
+ * range of tiles at a single zoom level of a {@link TileGrid}. The shared tile
+ * edge nodes are projected once into primitive arrays when the view is
+ * created by a {@link GeometryTransform}, and each tile envelope is computed
+ * from its edge nodes when requested.
+ *
+ * Tile edges may be densified with additional nodes between the tile corners
+ * to capture the curvature of projected edges, with each tile envelope the
+ * bounds of all projected nodes on its four edges. Without densifying, each
+ * tile envelope is built from the projected corners as by
+ * {@link GeometryTransform#transform(GeometryEnvelope)}. Nodes that fail to
+ * project are NaN and skipped when bounding the tiles sharing them, see
+ * {@link #isFailed(int, int)}. Envelope values are NaN only when every node
+ * bounding them failed.
+ *
+ * @author osbornb
+ * @since 4.3.3
+ */
+public class TileGridEnvelopes {
+
+	/**
+	 * Tile grid
+	 */
+	private final TileGrid grid;
+
+	/**
+	 * Zoom level
+	 */
+	private final int zoom;
+
+	/**
+	 * Min tile column
+	 */
+	private final int minColumn;
+
+	/**
+	 * Min tile row
+	 */
+	private final int minRow;
+
+	/**
+	 * Number of tile columns
+	 */
+	private final int columns;
+
+	/**
+	 * Number of tile rows
+	 */
+	private final int rows;
+
+	/**
+	 * Edge segments per tile, one more than the densify count
+	 */
+	private final int segments;
+
+	/**
+	 * Projected x coordinates of the horizontal tile edge lines
+	 */
+	private final double[] horizontalX;
+
+	/**
+	 * Projected y coordinates of the horizontal tile edge lines
+	 */
+	private final double[] horizontalY;
+
+	/**
+	 * Projected x coordinates of the vertical tile edge lines, null when not
+	 * densified
+	 */
+	private final double[] verticalX;
+
+	/**
+	 * Projected y coordinates of the vertical tile edge lines, null when not
+	 * densified
+	 */
+	private final double[] verticalY;
+
+	/**
+	 * Constructor
+	 *
+	 * @param grid
+	 *            tile grid
+	 * @param zoom
+	 *            zoom level
+	 * @param minColumn
+	 *            min tile column
+	 * @param minRow
+	 *            min tile row
+	 * @param columns
+	 *            number of tile columns
+	 * @param rows
+	 *            number of tile rows
+	 * @param segments
+	 *            edge segments per tile
+	 * @param horizontalX
+	 *            projected horizontal edge x coordinates
+	 * @param horizontalY
+	 *            projected horizontal edge y coordinates
+	 * @param verticalX
+	 *            projected vertical edge x coordinates, null when not densified
+	 * @param verticalY
+	 *            projected vertical edge y coordinates, null when not densified
+	 */
+	TileGridEnvelopes(TileGrid grid, int zoom, int minColumn, int minRow,
+			int columns, int rows, int segments, double[] horizontalX,
+			double[] horizontalY, double[] verticalX, double[] verticalY) {
+		this.grid = grid;
+		this.zoom = zoom;
+		this.minColumn = minColumn;
+		this.minRow = minRow;
+		this.columns = columns;
+		this.rows = rows;
+		this.segments = segments;
+		this.horizontalX = horizontalX;
+		this.horizontalY = horizontalY;
+		this.verticalX = verticalX;
+		this.verticalY = verticalY;
+	}
+
+	/**
+	 * Get the tile grid
+	 *
+	 * @return tile grid
+	 */
+	public TileGrid getGrid() {
+		return grid;
+	}
+
+	/**
+	 * Get the zoom level
+	 *
+	 * @return zoom level
+	 */
+	public int getZoom() {
+		return zoom;
+	}
+
+	/**
+	 * Get the min tile column
+	 *
+	 * @return min column
+	 */
+	public int getMinColumn() {
+		return minColumn;
+	}
+
+	/**
+	 * Get the max tile column
+	 *
+	 * @return max column
+	 */
+	public int getMaxColumn() {
+		return minColumn + columns - 1;
+	}
+
+	/**
+	 * Get the min tile row
+	 *
+	 * @return min row
+	 */
+	public int getMinRow() {
+		return minRow;
+	}
+
+	/**
+	 * Get the max tile row
+	 *
+	 * @return max row
+	 */
+	public int getMaxRow() {
+		return minRow + rows - 1;
+	}
+
+	/**
+	 * Get the number of tile columns
+	 *
+	 * @return columns
+	 */
+	public int numColumns() {
+		return columns;
+	}
+
+	/**
+	 * Get the number of tile rows
+	 *
+	 * @return rows
+	 */
+	public int numRows() {
+		return rows;
+	}
+
+	/**
+	 * Get the number of tiles
+	 *
+	 * @return tiles
+	 */
+	public int size() {
+		return columns * rows;
+	}
+
+	/**
+	 * Get the number of densified nodes between tile corners on each edge
+	 *
+	 * @return densify count
+	 */
+	public int getDensify() {
+		return segments - 1;
+	}
+
+	/**
+	 * Get the number of projected grid nodes
+	 *
+	 * @return node count
+	 */
+	public int numNodes() {
+		return horizontalX.length
+				+ (verticalX != null ? verticalX.length : 0);
+	}
+
+	/**
+	 * Get the projected tile envelope by index, in row major order from the
+	 * min column and row
+	 *
+	 * @param index
+	 *            tile index
+	 * @return projected tile envelope
+	 */
+	public GeometryEnvelope getEnvelope(int index) {
+		if (index < 0 || index >= size()) {
+			throw new SFException("Tile index " + index
+					+ " is out of range for " + size() + " tiles");
+		}
+		return getEnvelope(minColumn + index % columns,
+				minRow + index / columns);
+	}
+
+	/**
+	 * Get the projected tile envelope
+	 *
+	 * @param column
+	 *            tile column
+	 * @param row
+	 *            tile row
+	 * @return projected tile envelope
+	 */
+	public GeometryEnvelope getEnvelope(int column, int row) {
+
+		int top = getTopIndex(column, row);
+		int bottom = top + columns * segments + 1;
+
+		GeometryEnvelope envelope = null;
+		if (verticalX != null) {
+			int left = getLeftIndex(column, row);
+			int right = left + rows * segments + 1;
+			envelope = getDensifiedEnvelope(top, bottom, left, right);
+		} else {
+			envelope = getCornerEnvelope(top, bottom);
+		}
+
+		return envelope;
+	}
+
+	/**
+	 * Check if any edge node of the tile failed to project, in which case the
+	 * tile envelope bounds only the projected nodes
+	 *
+	 * @param column
+	 *            tile column
+	 * @param row
+	 *            tile row
+	 * @return true if an edge node failed
+	 */
+	public boolean isFailed(int column, int row) {
+
+		int top = getTopIndex(column, row);
+		int bottom = top + columns * segments + 1;
+
+		boolean failed = false;
+		for (int i = 0; !failed && i <= segments; i++) {
+			failed = Double.isNaN(horizontalX[top + i])
+					|| Double.isNaN(horizontalX[bottom + i]);
+		}
+		if (!failed && verticalX != null) {
+			int left = getLeftIndex(column, row);
+			int right = left + rows * segments + 1;
+			for (int i = 0; !failed && i <= segments; i++) {
+				failed = Double.isNaN(verticalX[left + i])
+						|| Double.isNaN(verticalX[right + i]);
+			}
+		}
+
+		return failed;
+	}
+
+	/**
+	 * Get the horizontal node index of the tile top left corner, validating
+	 * the tile is within the range
+	 *
+	 * @param column
+	 *            tile column
+	 * @param row
+	 *            tile row
+	 * @return top edge horizontal node index
+	 */
+	private int getTopIndex(int column, int row) {
+		int localColumn = column - minColumn;
+		int localRow = row - minRow;
+		if (localColumn < 0 || localColumn >= columns || localRow < 0
+				|| localRow >= rows) {
+			throw new SFException("Tile column " + column + ", row " + row
+					+ " is outside of the range. Columns: " + minColumn + " - "
+					+ getMaxColumn() + ", Rows: " + minRow + " - "
+					+ getMaxRow());
+		}
+		return localRow * (columns * segments + 1) + localColumn * segments;
+	}
+
+	/**
+	 * Get the vertical node index of the tile top left corner
+	 *
+	 * @param column
+	 *            tile column
+	 * @param row
+	 *            tile row
+	 * @return left edge vertical node index
+	 */
+	private int getLeftIndex(int column, int row) {
+		return (column - minColumn) * (rows * segments + 1)
+				+ (row - minRow) * segments;
+	}
+
+	/**
+	 * Get the projected tile envelope bounding all projected nodes of the
+	 * four tile edges
+	 *
+	 * @param top
+	 *            top edge horizontal node index
+	 * @param bottom
+	 *            bottom edge horizontal node index
+	 * @param left
+	 *            left edge vertical node index
+	 * @param right
+	 *            right edge vertical node index
+	 * @return projected tile envelope
+	 */
+	private GeometryEnvelope getDensifiedEnvelope(int top, int bottom,
+			int left, int right) {
+
+		double minX = Double.NaN;
+		double minY = Double.NaN;
+		double maxX = Double.NaN;
+		double maxY = Double.NaN;
+		for (int i = 0; i <= segments; i++) {
+			minX = min(min(minX, horizontalX[top + i]),
+					min(horizontalX[bottom + i],
+							min(verticalX[left + i], verticalX[right + i])));
+			minY = min(min(minY, horizontalY[top + i]),
+					min(horizontalY[bottom + i],
+							min(verticalY[left + i], verticalY[right + i])));
+			maxX = max(max(maxX, horizontalX[top + i]),
+					max(horizontalX[bottom + i],
+							max(verticalX[left + i], verticalX[right + i])));
+			maxY = max(max(maxY, horizontalY[top + i]),
+					max(horizontalY[bottom + i],
+							max(verticalY[left + i], verticalY[right + i])));
+		}
+
+		return new GeometryEnvelope(minX, minY, maxX, maxY);
+	}
+
+	/**
+	 * Get the projected tile envelope from the projected tile corners,
+	 * matching {@link GeometryTransform#transform(GeometryEnvelope)} of the
+	 * tile
+	 *
+	 * @param top
+	 *            top edge horizontal node index
+	 * @param bottom
+	 *            bottom edge horizontal node index
+	 * @return projected tile envelope
+	 */
+	private GeometryEnvelope getCornerEnvelope(int top, int bottom) {
+
+		double minLeftX = min(horizontalX[top], horizontalX[bottom]);
+		double maxLeftX = max(horizontalX[top], horizontalX[bottom]);
+		double minRightX = min(horizontalX[top + 1], horizontalX[bottom + 1]);
+		double maxRightX = max(horizontalX[top + 1], horizontalX[bottom + 1]);
+		double minTopY = min(horizontalY[top], horizontalY[top + 1]);
+		double maxTopY = max(horizontalY[top], horizontalY[top + 1]);
+		double minBottomY = min(horizontalY[bottom], horizontalY[bottom + 1]);
+		double maxBottomY = max(horizontalY[bottom], horizontalY[bottom + 1]);
+
+		double minX = minLeftX;
+		double maxX = maxRightX;
+		if (minX > maxX) {
+			minX = maxLeftX;
+			maxX = minRightX;
+		}
+
+		double minY = minBottomY;
+		double maxY = maxTopY;
+		if (minY > maxY) {
+			minY = maxBottomY;
+			maxY = minTopY;
+		}
+
+		return new GeometryEnvelope(minX, minY, maxX, maxY);
+	}
+
+	/**
+	 * Get the min of the values, skipping NaN failed values
+	 *
+	 * @param value1
+	 *            first value
+	 * @param value2
+	 *            second value
+	 * @return min value, NaN if both are NaN
+	 */
+	private static double min(double value1, double value2) {
+		return Double.isNaN(value2) || value1 < value2 ? value1 : value2;
+	}
+
+	/**
+	 * Get the max of the values, skipping NaN failed values
+	 *
+	 * @param value1
+	 *            first value
+	 * @param value2
+	 *            second value
+	 * @return max value, NaN if both are NaN
+	 */
+	private static double max(double value1, double value2) {
+		return Double.isNaN(value2) || value1 > value2 ? value1 : value2;
+	}
+
+	/**
+	 * Get a lazy list view of the projected tile envelopes, in row major order
+	 * from the min column and row
+	 *
+	 * @return projected tile envelopes
+	 */
+	public List<GeometryEnvelope> getEnvelopes() {
+		return new AbstractList<GeometryEnvelope>() {
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public GeometryEnvelope get(int index) {
+				return getEnvelope(index);
+			}
+
+			/**
+			 * {@inheritDoc}
+			 */
+			@Override
+			public int size() {
+				return TileGridEnvelopes.this.size();
+			}
+
+		};
+	}
+
+}
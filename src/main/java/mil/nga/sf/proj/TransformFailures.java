@@ -0,0 +1,192 @@
+package mil.nga.sf.proj;
+
+import java.util.BitSet;
+
+/**
+ * Transform Failures of a bulk coordinate transform, recorded as a bitmap of
+ * failed coordinate indices next to the output arrays instead of thrown
+ * exceptions. A coordinate fails when the projection throws or produces a non
+ * finite x or y value. Failed output coordinates are set to NaN, or keep their
+ * source values when transformed in place, and the caller decides whether to
+ * drop, clamp and retry, or fix up the failed coordinates.
+ *
+ * @author osbornb
+ * @since 4.3.3
+ */
+public class TransformFailures {
+
+	/**
+	 * Number of transformed coordinates
+	 */
+	private final int size;
+
+	/**
+	 * Failed coordinate indices
+	 */
+	private final BitSet failed = new BitSet();
+
+	/**
+	 * Constructor
+	 *
+	 * @param size
+	 *            number of transformed coordinates
+	 */
+	public TransformFailures(int size) {
+		this.size = size;
+	}
+
+	/**
+	 * Get the number of transformed coordinates
+	 *
+	 * @return size
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Get the number of failed coordinates
+	 *
+	 * @return failure count
+	 */
+	public int count() {
+		return failed.cardinality();
+	}
+
+	/**
+	 * Check if any coordinates failed
+	 *
+	 * @return true if failures
+	 */
+	public boolean hasFailures() {
+		return !failed.isEmpty();
+	}
+
+	/**
+	 * Check if the coordinate failed
+	 *
+	 * @param index
+	 *            coordinate index
+	 * @return true if failed
+	 */
+	public boolean isFailed(int index) {
+		return failed.get(index);
+	}
+
+	/**
+	 * Mark the coordinate as failed
+	 *
+	 * @param index
+	 *            coordinate index
+	 */
+	public void setFailed(int index) {
+		failed.set(index);
+	}
+
+	/**
+	 * Mark the coordinate as successfully transformed
+	 *
+	 * @param index
+	 *            coordinate index
+	 */
+	public void clearFailed(int index) {
+		failed.clear(index);
+	}
+
+	/**
+	 * Get the failed coordinate indices in ascending order
+	 *
+	 * @return failed indices
+	 */
+	public int[] getIndices() {
+		return failed.stream().toArray();
+	}
+
+	/**
+	 * Get a copy of the failed coordinate bitmap
+	 *
+	 * @return failed bitmap
+	 */
+	public BitSet getBitSet() {
+		return (BitSet) failed.clone();
+	}
+
+	/**
+	 * Drop the failed coordinates by compacting the arrays in place, keeping
+	 * the order of the remaining coordinates. Null arrays are skipped.
+	 *
+	 * @param arrays
+	 *            coordinate value arrays, such as x, y, z, and m
+	 * @return number of remaining coordinates at the start of each array
+	 */
+	public int drop(double[]... arrays) {
+		int count = size;
+		if (hasFailures()) {
+			count = 0;
+			for (int i = 0; i < size; i++) {
+				if (!failed.get(i)) {
+					if (count != i) {
+						for (double[] values : arrays) {
+							if (values != null) {
+								values[count] = values[i];
+							}
+						}
+					}
+					count++;
+				}
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Set the values of the failed coordinates
+	 *
+	 * @param values
+	 *            coordinate values
+	 * @param value
+	 *            replacement value
+	 */
+	public void fill(double[] values, double value) {
+		for (int i = failed.nextSetBit(0); i >= 0; i = failed
+				.nextSetBit(i + 1)) {
+			values[i] = value;
+		}
+	}
+
+	/**
+	 * Fix up the failed coordinates by copying values from another array, such
+	 * as the source coordinates or fallback values
+	 *
+	 * @param from
+	 *            values to copy from
+	 * @param to
+	 *            values to fix up
+	 */
+	public void copy(double[] from, double[] to) {
+		for (int i = failed.nextSetBit(0); i >= 0; i = failed
+				.nextSetBit(i + 1)) {
+			to[i] = from[i];
+		}
+	}
+
+	/**
+	 * Clamp the values of the failed coordinates to a range, such as clamping
+	 * source latitudes to a projection's valid range before retrying the
+	 * failed coordinates
+	 *
+	 * @param values
+	 *            coordinate values
+	 * @param min
+	 *            min value
+	 * @param max
+	 *            max value
+	 */
+	public void clamp(double[] values, double min, double max) {
+		for (int i = failed.nextSetBit(0); i >= 0; i = failed
+				.nextSetBit(i + 1)) {
+			values[i] = Math.max(min, Math.min(max, values[i]));
+		}
+	}
+
+}
@@ -0,0 +1,523 @@
+package mil.nga.sf.proj;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import junit.framework.TestCase;
+import mil.nga.proj.ProjectionConstants;
+import mil.nga.sf.CircularString;
+import mil.nga.sf.CompoundCurve;
+import mil.nga.sf.Curve;
+import mil.nga.sf.CurvePolygon;
+import mil.nga.sf.Geometry;
+import mil.nga.sf.GeometryCollection;
+import mil.nga.sf.LineString;
+import mil.nga.sf.MultiLineString;
+import mil.nga.sf.MultiPoint;
+import mil.nga.sf.MultiPolygon;
+import mil.nga.sf.Point;
+import mil.nga.sf.Polygon;
+import mil.nga.sf.PolyhedralSurface;
+import mil.nga.sf.TIN;
+import mil.nga.sf.Triangle;
+
+/**
+ * Geometry Transform allocation budget tests, failing when the transform hot
+ * paths allocate more bytes per transformed vertex than budgeted
+ *
+ * @author osbornb
+ */
+public class GeometryTransformAllocationTest {
+
+	/**
+	 * Vertices per test geometry
+	 */
+	private static final int VERTICES = 1000;
+
+	/**
+	 * Warm up iterations before measuring
+	 */
+	private static final int WARM_UP = 300;
+
+	/**
+	 * Measured iterations
+	 */
+	private static final int ITERATIONS = 200;
+
+	/**
+	 * Budgeted bytes per vertex, covering the projected point and its share of
+	 * the containing point list (measured at about 64 bytes for each Z and M
+	 * variant)
+	 */
+	private static final double VERTEX_BUDGET = 96;
+
+	/**
+	 * Additional budgeted bytes per vertex for the polygon, ring, and list
+	 * structure of four vertex TIN triangles (measured at about 62 bytes)
+	 */
+	private static final double TRIANGLE_BUDGET = 80;
+
+	/**
+	 * Budgeted bytes per coordinate for bulk array and coordinate buffer
+	 * transforms, which allocate per call instead of per coordinate
+	 */
+	private static final double BULK_BUDGET = 1;
+
+	/**
+	 * Budgeted bytes per streamed single point transform, covering the
+	 * projected point alone (measured at about 48 bytes)
+	 */
+	private static final double POINT_BUDGET = 64;
+
+	/**
+	 * Thread MX Bean
+	 */
+	private static com.sun.management.ThreadMXBean threadBean;
+
+	/**
+	 * Geometry transform
+	 */
+	private static GeometryTransform transform;
+
+	/**
+	 * Set up the thread allocation measurement, skipping the tests when not
+	 * supported by the JVM
+	 */
+	@BeforeClass
+	public static void setUp() {
+		ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		Assume.assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+		threadBean = (com.sun.management.ThreadMXBean) bean;
+		Assume.assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+		threadBean.setThreadAllocatedMemoryEnabled(true);
+		transform = GeometryTransform.create(
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM,
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WEB_MERCATOR);
+	}
+
+	/**
+	 * Test streaming single point allocations for each Z and M variant
+	 */
+	@Test
+	public void testPoint() {
+		for (boolean hasZ : new boolean[] { false, true }) {
+			for (boolean hasM : new boolean[] { false, true }) {
+
+				List<Point> points = createLineString(VERTICES, hasZ, hasM)
+						.getPoints();
+
+				for (int i = 0; i < WARM_UP; i++) {
+					for (Point point : points) {
+						transform.transform(point);
+					}
+				}
+				long start = threadBean.getCurrentThreadAllocatedBytes();
+				for (int i = 0; i < ITERATIONS; i++) {
+					for (Point point : points) {
+						transform.transform(point);
+					}
+				}
+				long bytes = threadBean.getCurrentThreadAllocatedBytes()
+						- start;
+
+				assertBudget("POINT" + (hasZ ? " Z" : "") + (hasM ? " M" : ""),
+						bytes, POINT_BUDGET);
+			}
+		}
+	}
+
+	/**
+	 * Test line string allocations for each Z and M variant
+	 */
+	@Test
+	public void testLineString() {
+		for (boolean hasZ : new boolean[] { false, true }) {
+			for (boolean hasM : new boolean[] { false, true }) {
+				assertBudget(createLineString(VERTICES, hasZ, hasM), hasZ,
+						hasM);
+			}
+		}
+	}
+
+	/**
+	 * Test polygon allocations for each Z and M variant
+	 */
+	@Test
+	public void testPolygon() {
+		for (boolean hasZ : new boolean[] { false, true }) {
+			for (boolean hasM : new boolean[] { false, true }) {
+				Polygon polygon = new Polygon(hasZ, hasM);
+				polygon.addRing(createRing(VERTICES, hasZ, hasM));
+				assertBudget(polygon, hasZ, hasM);
+			}
+		}
+	}
+
+	/**
+	 * Test multi point allocations for each Z and M variant
+	 */
+	@Test
+	public void testMultiPoint() {
+		for (boolean hasZ : new boolean[] { false, true }) {
+			for (boolean hasM : new boolean[] { false, true }) {
+				MultiPoint multiPoint = new MultiPoint(hasZ, hasM);
+				multiPoint.setPoints(
+						createLineString(VERTICES, hasZ, hasM).getPoints());
+				assertBudget(multiPoint, hasZ, hasM);
+			}
+		}
+	}
+
+	/**
+	 * Test multi line string allocations for each Z and M variant
+	 */
+	@Test
+	public void testMultiLineString() {
+		for (boolean hasZ : new boolean[] { false, true }) {
+			for (boolean hasM : new boolean[] { false, true }) {
+				MultiLineString multiLineString = new MultiLineString(hasZ,
+						hasM);
+				for (int i = 0; i < 10; i++) {
+					multiLineString.addLineString(
+							createLineString(VERTICES / 10, hasZ, hasM));
+				}
+				assertBudget(multiLineString, hasZ, hasM);
+			}
+		}
+	}
+
+	/**
+	 * Test multi polygon allocations for each Z and M variant
+	 */
+	@Test
+	public void testMultiPolygon() {
+		for (boolean hasZ : new boolean[] { false, true }) {
+			for (boolean hasM : new boolean[] { false, true }) {
+				MultiPolygon multiPolygon = new MultiPolygon(hasZ, hasM);
+				for (int i = 0; i < 10; i++) {
+					Polygon polygon = new Polygon(hasZ, hasM);
+					polygon.addRing(createRing(VERTICES / 10, hasZ, hasM));
+					multiPolygon.addPolygon(polygon);
+				}
+				assertBudget(multiPolygon, hasZ, hasM);
+			}
+		}
+	}
+
+	/**
+	 * Test TIN allocations for each Z and M variant
+	 */
+	@Test
+	public void testTIN() {
+		for (boolean hasZ : new boolean[] { false, true }) {
+			for (boolean hasM : new boolean[] { false, true }) {
+				TIN tin = new TIN(hasZ, hasM);
+				for (int i = 0; i < VERTICES / 4; i++) {
+					Triangle triangle = new Triangle(hasZ, hasM);
+					triangle.addRing(createRing(4, hasZ, hasM));
+					tin.addPolygon(triangle);
+				}
+				assertBudget(tin, hasZ, hasM, TRIANGLE_BUDGET);
+			}
+		}
+	}
+
+	/**
+	 * Test circular string allocations for each Z and M variant
+	 */
+	@Test
+	public void testCircularString() {
+		for (boolean hasZ : new boolean[] { false, true }) {
+			for (boolean hasM : new boolean[] { false, true }) {
+				assertBudget(createCircularString(VERTICES, hasZ, hasM), hasZ,
+						hasM);
+			}
+		}
+	}
+
+	/**
+	 * Test compound curve allocations for each Z and M variant
+	 */
+	@Test
+	public void testCompoundCurve() {
+		for (boolean hasZ : new boolean[] { false, true }) {
+			for (boolean hasM : new boolean[] { false, true }) {
+				CompoundCurve compoundCurve = new CompoundCurve(hasZ, hasM);
+				for (int i = 0; i < 10; i++) {
+					compoundCurve.addLineString(
+							createLineString(VERTICES / 10, hasZ, hasM));
+				}
+				assertBudget(compoundCurve, hasZ, hasM);
+			}
+		}
+	}
+
+	/**
+	 * Test curve polygon allocations for each Z and M variant
+	 */
+	@Test
+	public void testCurvePolygon() {
+		for (boolean hasZ : new boolean[] { false, true }) {
+			for (boolean hasM : new boolean[] { false, true }) {
+				CurvePolygon<Curve> curvePolygon = new CurvePolygon<>(hasZ,
+						hasM);
+				curvePolygon.addRing(
+						createCircularString(VERTICES / 2, hasZ, hasM));
+				CompoundCurve compoundCurve = new CompoundCurve(hasZ, hasM);
+				compoundCurve.addLineString(
+						createRing(VERTICES / 2, hasZ, hasM));
+				curvePolygon.addRing(compoundCurve);
+				assertBudget(curvePolygon, hasZ, hasM);
+			}
+		}
+	}
+
+	/**
+	 * Test polyhedral surface allocations for each Z and M variant
+	 */
+	@Test
+	public void testPolyhedralSurface() {
+		for (boolean hasZ : new boolean[] { false, true }) {
+			for (boolean hasM : new boolean[] { false, true }) {
+				PolyhedralSurface polyhedralSurface = new PolyhedralSurface(
+						hasZ, hasM);
+				for (int i = 0; i < 10; i++) {
+					Polygon polygon = new Polygon(hasZ, hasM);
+					polygon.addRing(createRing(VERTICES / 10, hasZ, hasM));
+					polyhedralSurface.addPolygon(polygon);
+				}
+				assertBudget(polyhedralSurface, hasZ, hasM);
+			}
+		}
+	}
+
+	/**
+	 * Test geometry collection allocations for each Z and M variant
+	 */
+	@Test
+	public void testGeometryCollection() {
+		for (boolean hasZ : new boolean[] { false, true }) {
+			for (boolean hasM : new boolean[] { false, true }) {
+				GeometryCollection<Geometry> geometryCollection = new GeometryCollection<>(
+						hasZ, hasM);
+				for (int i = 0; i < 3; i++) {
+					geometryCollection.addGeometry(
+							createLineString(VERTICES / 10, hasZ, hasM));
+					Polygon polygon = new Polygon(hasZ, hasM);
+					polygon.addRing(createRing(VERTICES / 10, hasZ, hasM));
+					geometryCollection.addGeometry(polygon);
+					geometryCollection.addGeometry(
+							createCircularString(VERTICES / 10, hasZ, hasM));
+				}
+				for (Point point : createLineString(VERTICES / 10, hasZ, hasM)
+						.getPoints()) {
+					geometryCollection.addGeometry(point);
+				}
+				assertBudget(geometryCollection, hasZ, hasM);
+			}
+		}
+	}
+
+	/**
+	 * Test bulk array transform allocations
+	 */
+	@Test
+	public void testBulk() {
+
+		double[] x = new double[VERTICES];
+		double[] y = new double[VERTICES];
+		double[] toX = new double[VERTICES];
+		double[] toY = new double[VERTICES];
+		for (int i = 0; i < VERTICES; i++) {
+			x[i] = i * 0.1;
+			y[i] = i * 0.05;
+		}
+
+		for (int i = 0; i < WARM_UP; i++) {
+			transform.transform(x, y, null, toX, toY, null);
+		}
+		long start = threadBean.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < ITERATIONS; i++) {
+			transform.transform(x, y, null, toX, toY, null);
+		}
+		long bytes = threadBean.getCurrentThreadAllocatedBytes() - start;
+
+		assertBudget("Bulk", bytes, BULK_BUDGET);
+	}
+
+	/**
+	 * Test coordinate buffer transform allocations
+	 */
+	@Test
+	public void testCoordinateBuffer() {
+
+		CoordinateBuffer buffer = CoordinateBuffer
+				.create(createLineString(VERTICES, true, true));
+		CoordinateBuffer to = CoordinateBuffer.allocate(VERTICES, true, true);
+
+		for (int i = 0; i < WARM_UP; i++) {
+			transform.transform(buffer, to);
+		}
+		long start = threadBean.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < ITERATIONS; i++) {
+			transform.transform(buffer, to);
+		}
+		long bytes = threadBean.getCurrentThreadAllocatedBytes() - start;
+
+		assertBudget("Coordinate Buffer", bytes, BULK_BUDGET);
+	}
+
+	/**
+	 * Assert the geometry transform allocations are within the budget
+	 *
+	 * @param geometry
+	 *            geometry
+	 * @param hasZ
+	 *            has z
+	 * @param hasM
+	 *            has m
+	 */
+	private static void assertBudget(Geometry geometry, boolean hasZ,
+			boolean hasM) {
+		assertBudget(geometry, hasZ, hasM, 0);
+	}
+
+	/**
+	 * Assert the geometry transform allocations are within the budget
+	 *
+	 * @param geometry
+	 *            geometry
+	 * @param hasZ
+	 *            has z
+	 * @param hasM
+	 *            has m
+	 * @param structureBudget
+	 *            additional budgeted bytes per vertex for geometry structure
+	 */
+	private static void assertBudget(Geometry geometry, boolean hasZ,
+			boolean hasM, double structureBudget) {
+
+		for (int i = 0; i < WARM_UP; i++) {
+			transform.transform(geometry);
+		}
+		long start = threadBean.getCurrentThreadAllocatedBytes();
+		for (int i = 0; i < ITERATIONS; i++) {
+			transform.transform(geometry);
+		}
+		long bytes = threadBean.getCurrentThreadAllocatedBytes() - start;
+
+		assertBudget(geometry.getGeometryType() + (hasZ ? " Z" : "")
+				+ (hasM ? " M" : ""), bytes, VERTEX_BUDGET + structureBudget);
+	}
+
+	/**
+	 * Assert the allocated bytes per vertex are within the budget
+	 *
+	 * @param name
+	 *            measured transform name
+	 * @param bytes
+	 *            allocated bytes over all iterations
+	 * @param budget
+	 *            budgeted bytes per vertex
+	 */
+	private static void assertBudget(String name, long bytes, double budget) {
+		double perVertex = (double) bytes / ((long) ITERATIONS * VERTICES);
+		TestCase.assertTrue(name + " allocated " + perVertex
+				+ " bytes per vertex, exceeding the budget of " + budget,
+				perVertex <= budget);
+	}
+
+	/**
+	 * Create a line string
+	 *
+	 * @param vertices
+	 *            number of vertices
+	 * @param hasZ
+	 *            has z
+	 * @param hasM
+	 *            has m
+	 * @return line string
+	 */
+	private static LineString createLineString(int vertices, boolean hasZ,
+			boolean hasM) {
+		LineString lineString = new LineString(hasZ, hasM);
+		for (int i = 0; i < vertices; i++) {
+			lineString.addPoint(createPoint(i * 0.01, i * 0.005, hasZ, hasM));
+		}
+		return lineString;
+	}
+
+	/**
+	 * Create a closed ring
+	 *
+	 * @param vertices
+	 *            number of vertices, including the closing vertex
+	 * @param hasZ
+	 *            has z
+	 * @param hasM
+	 *            has m
+	 * @return ring
+	 */
+	private static LineString createRing(int vertices, boolean hasZ,
+			boolean hasM) {
+		LineString ring = new LineString(hasZ, hasM);
+		for (int i = 0; i < vertices - 1; i++) {
+			double angle = 2 * Math.PI * i / (vertices - 1);
+			ring.addPoint(createPoint(Math.cos(angle), Math.sin(angle), hasZ,
+					hasM));
+		}
+		ring.addPoint(new Point(ring.startPoint()));
+		return ring;
+	}
+
+	/**
+	 * Create a closed circular string
+	 *
+	 * @param vertices
+	 *            number of vertices, including the closing vertex
+	 * @param hasZ
+	 *            has z
+	 * @param hasM
+	 *            has m
+	 * @return circular string
+	 */
+	private static CircularString createCircularString(int vertices,
+			boolean hasZ, boolean hasM) {
+		CircularString circularString = new CircularString(hasZ, hasM);
+		circularString.setPoints(createRing(vertices, hasZ, hasM).getPoints());
+		return circularString;
+	}
+
+	/**
+	 * Create a point
+	 *
+	 * @param x
+	 *            x
+	 * @param y
+	 *            y
+	 * @param hasZ
+	 *            has z
+	 * @param hasM
+	 *            has m
+	 * @return point
+	 */
+	private static Point createPoint(double x, double y, boolean hasZ,
+			boolean hasM) {
+		Point point = new Point(hasZ, hasM, x, y);
+		if (hasZ) {
+			point.setZ(x + y);
+		}
+		if (hasM) {
+			point.setM(x - y);
+		}
+		return point;
+	}
+
+}
@@ -1,15 +1,30 @@
 package mil.nga.sf.proj;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.Test;
+import org.locationtech.proj4j.ProjCoordinate;
 
 import junit.framework.TestCase;
 import mil.nga.proj.Projection;
 import mil.nga.proj.ProjectionConstants;
 import mil.nga.proj.ProjectionFactory;
 import mil.nga.sf.Geometry;
+import mil.nga.sf.GeometryCollection;
+import mil.nga.sf.GeometryEnvelope;
+import mil.nga.sf.GeometryType;
 import mil.nga.sf.LineString;
+import mil.nga.sf.MultiPolygon;
 import mil.nga.sf.Point;
 import mil.nga.sf.Polygon;
+import mil.nga.sf.TIN;
+import mil.nga.sf.Triangle;
+import mil.nga.sf.util.GeometryEnvelopeBuilder;
+import mil.nga.sf.util.SFException;
 
 /**
  * Geometry Transform tests
@@ -100,4 +115,1097 @@ public class GeometryTransformTest {
 
 	}
 
+	/**
+	 * Test transforms with a coordinate cache for shared vertices
+	 */
+	@Test
+	public void testCache() {
+
+		TIN tin = new TIN(true, false);
+		tin.addPolygon(createTriangle(new Point(10.0, 10.0, 5.0),
+				new Point(11.0, 10.0, 6.0), new Point(10.0, 11.0, 7.0)));
+		tin.addPolygon(createTriangle(new Point(11.0, 10.0, 6.0),
+				new Point(11.0, 11.0, 8.0), new Point(10.0, 11.0, 7.0)));
+
+		GeometryTransform transform = GeometryTransform.create(
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM,
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WEB_MERCATOR);
+
+		TestCase.assertFalse(transform.isCached());
+		Geometry expected = transform.transform(tin);
+
+		CoordinateCache cache = transform.enableCache();
+		TestCase.assertTrue(transform.isCached());
+		Geometry cached = transform.transform(tin);
+
+		TestCase.assertEquals(expected, cached);
+		TestCase.assertEquals(4, cache.size());
+		TestCase.assertEquals(8, cache.getLookups());
+		TestCase.assertEquals(4, cache.getMisses());
+		TestCase.assertEquals(4, cache.getHits());
+		TestCase.assertEquals(0.5, cache.getHitRate(), 0.0);
+
+		TestCase.assertEquals(expected, transform.transform(tin));
+		TestCase.assertEquals(4, cache.size());
+		TestCase.assertEquals(12, cache.getHits());
+
+		cache.clear();
+		TestCase.assertTrue(cache.isEmpty());
+		TestCase.assertEquals(0, cache.getLookups());
+
+		CoordinateCache smallCache = new CoordinateCache(1);
+		transform.setCache(smallCache);
+		for (int i = 0; i < 100; i++) {
+			Point point = new Point(i / 10.0, -i / 10.0);
+			Point expectedPoint = transform.transform(point);
+			TestCase.assertEquals(expectedPoint, transform.transform(point));
+		}
+		TestCase.assertEquals(100, smallCache.size());
+		TestCase.assertEquals(100, smallCache.getHits());
+
+		transform.setCache(null);
+		TestCase.assertFalse(transform.isCached());
+		TestCase.assertEquals(expected, transform.transform(tin));
+
+		CoordinateCache batchCache = new CoordinateCache();
+		TestCase.assertFalse(batchCache.isBound());
+		TestCase.assertEquals(expected,
+				transform.transformCached(tin, batchCache));
+		TestCase.assertFalse(transform.isCached());
+		TestCase.assertTrue(batchCache.isBound());
+		TestCase.assertEquals(4, batchCache.size());
+		TestCase.assertEquals(expected,
+				transform.transformCached(tin, batchCache));
+		TestCase.assertEquals(12, batchCache.getHits());
+		TestCase.assertEquals(expected, transform.transformCached(tin));
+		CoordinateCache ownCache = transform.enableCache();
+		TestCase.assertEquals(expected,
+				transform.transformCached(tin, new CoordinateCache()));
+		TestCase.assertSame(ownCache, transform.getCache());
+		TestCase.assertEquals(0, ownCache.getLookups());
+		transform.setCache(null);
+
+		GeometryTransform other = GeometryTransform.create(
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM,
+				ProjectionConstants.AUTHORITY_EPSG, 3395);
+		try {
+			other.setCache(batchCache);
+			TestCase.fail("Expected cache bound to a different transform");
+		} catch (SFException e) {
+			// Expected
+		}
+		try {
+			other.transformCached(tin, batchCache);
+			TestCase.fail("Expected cache bound to a different transform");
+		} catch (SFException e) {
+			// Expected
+		}
+		TestCase.assertFalse(other.isCached());
+		GeometryTransform same = GeometryTransform.create(
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM,
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WEB_MERCATOR);
+		TestCase.assertEquals(expected, same.transformCached(tin, batchCache));
+		batchCache.clear();
+		TestCase.assertFalse(batchCache.isBound());
+		other.setCache(batchCache);
+		TestCase.assertTrue(batchCache.isBound());
+		other.setCache(null);
+
+		CoordinateCache boundedCache = new CoordinateCache(1, 3);
+		TestCase.assertEquals(3, boundedCache.getMaxSize());
+		TestCase.assertEquals(expected,
+				transform.transformCached(tin, boundedCache));
+		TestCase.assertTrue(boundedCache.size() <= 3);
+		TestCase.assertEquals(8, boundedCache.getLookups());
+
+	}
+
+	/**
+	 * Test point transforms for each combination of Z and M values
+	 */
+	@Test
+	public void testPointKernels() {
+
+		GeometryTransform transform = GeometryTransform.create(
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM,
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WEB_MERCATOR);
+
+		double[] expected = transform.transform(12.5, -33.25);
+
+		Point xy = transform.transform(new Point(12.5, -33.25));
+		TestCase.assertFalse(xy.hasZ());
+		TestCase.assertFalse(xy.hasM());
+		TestCase.assertEquals(expected[0], xy.getX());
+		TestCase.assertEquals(expected[1], xy.getY());
+
+		Point xyz = transform.transform(new Point(12.5, -33.25, 100.0));
+		TestCase.assertTrue(xyz.hasZ());
+		TestCase.assertFalse(xyz.hasM());
+		TestCase.assertEquals(expected[0], xyz.getX());
+		TestCase.assertEquals(expected[1], xyz.getY());
+		TestCase.assertEquals(100.0, xyz.getZ());
+
+		Point xym = new Point(false, true, 12.5, -33.25);
+		xym.setM(4.0);
+		xym = transform.transform(xym);
+		TestCase.assertFalse(xym.hasZ());
+		TestCase.assertTrue(xym.hasM());
+		TestCase.assertEquals(expected[0], xym.getX());
+		TestCase.assertEquals(expected[1], xym.getY());
+		TestCase.assertNull(xym.getZ());
+		TestCase.assertEquals(4.0, xym.getM());
+
+		Point xyzm = transform
+				.transform(new Point(12.5, -33.25, 100.0, 4.0));
+		TestCase.assertTrue(xyzm.hasZ());
+		TestCase.assertTrue(xyzm.hasM());
+		TestCase.assertEquals(expected[0], xyzm.getX());
+		TestCase.assertEquals(expected[1], xyzm.getY());
+		TestCase.assertEquals(100.0, xyzm.getZ());
+		TestCase.assertEquals(4.0, xyzm.getM());
+
+		Point nullZ = transform
+				.transform(new Point(true, false, 12.5, -33.25));
+		TestCase.assertEquals(expected[0], nullZ.getX());
+		TestCase.assertNull(nullZ.getZ());
+
+		LineString lineString = new LineString(true, true);
+		lineString.addPoint(new Point(12.5, -33.25, 100.0, 4.0));
+		lineString.addPoint(new Point(12.5, -33.25));
+		lineString.addPoint(new Point(12.5, -33.25, 50.0));
+		LineString projected = transform.transform(lineString);
+		TestCase.assertTrue(projected.hasZ());
+		TestCase.assertTrue(projected.hasM());
+		TestCase.assertEquals(xyzm, projected.getPoint(0));
+		TestCase.assertEquals(xy, projected.getPoint(1));
+		TestCase.assertFalse(projected.getPoint(1).hasZ());
+		TestCase.assertEquals(50.0, projected.getPoint(2).getZ());
+		TestCase.assertFalse(projected.getPoint(2).hasM());
+
+	}
+
+	/**
+	 * Test transforms of off heap coordinate buffers
+	 */
+	@Test
+	public void testCoordinateBuffer() {
+
+		GeometryTransform transform = GeometryTransform.create(
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM,
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WEB_MERCATOR);
+
+		LineString lineString = new LineString(true, true);
+		for (int i = 0; i < 50; i++) {
+			lineString.addPoint(new Point(-120.0 + i, 30.0 + i / 2.0,
+					(double) i, i * 10.0));
+		}
+
+		LineString expected = transform.transform(lineString);
+
+		CoordinateBuffer buffer = CoordinateBuffer.create(lineString);
+		TestCase.assertTrue(buffer.getBuffer().isDirect());
+		TestCase.assertEquals(50, buffer.size());
+		TestCase.assertEquals(4, buffer.getDimension());
+		TestCase.assertEquals(lineString, buffer.toLineString());
+
+		CoordinateBuffer projected = transform.transform(buffer);
+		TestCase.assertEquals(expected, projected.toLineString());
+		TestCase.assertEquals(lineString, buffer.toLineString());
+
+		transform.transform(buffer, buffer);
+		TestCase.assertEquals(expected, buffer.toLineString());
+
+		Polygon polygon = new Polygon();
+		LineString ring = new LineString();
+		ring.addPoint(new Point(-10.0, -10.0));
+		ring.addPoint(new Point(10.0, -10.0));
+		ring.addPoint(new Point(10.0, 10.0));
+		ring.addPoint(new Point(-10.0, -10.0));
+		polygon.addRing(ring);
+
+		List<CoordinateBuffer> rings = CoordinateBuffer.create(polygon);
+		for (CoordinateBuffer ringBuffer : rings) {
+			transform.transform(ringBuffer, ringBuffer);
+		}
+		TestCase.assertEquals(transform.transform(polygon),
+				CoordinateBuffer.toPolygon(rings));
+
+		try {
+			transform.transform(buffer, CoordinateBuffer.allocate(
+					buffer.size(), true, false));
+			TestCase.fail("Expected mismatched dimension failure");
+		} catch (SFException e) {
+			// expected
+		}
+
+	}
+
+	/**
+	 * Test transforms building the projected envelope
+	 */
+	@Test
+	public void testTransformWithEnvelope() {
+
+		GeometryTransform transform = GeometryTransform.create(
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM,
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WEB_MERCATOR);
+
+		MultiPolygon multiPolygon = new MultiPolygon(true, true);
+		multiPolygon.addPolygon(createTriangle(new Point(10.0, 10.0, 5.0, 1.0),
+				new Point(11.0, 10.0, 6.0, 2.0),
+				new Point(10.0, 11.0, 7.0, 3.0)));
+		multiPolygon.addPolygon(
+				createTriangle(new Point(-40.0, -20.0, -5.0, 4.0),
+						new Point(-39.0, -20.0, 6.0, 5.0),
+						new Point(-40.0, -19.0, 7.0, 6.0)));
+
+		GeometryCollection<Geometry> collection = new GeometryCollection<>();
+		collection.addGeometry(new Point(100.0, 50.0));
+		collection.addGeometry(multiPolygon);
+
+		for (Geometry geometry : new Geometry[] { multiPolygon, collection,
+				multiPolygon.getPolygon(0),
+				multiPolygon.getPolygon(0).getExteriorRing(),
+				new Point(1.0, 2.0, 3.0) }) {
+
+			Geometry expected = transform.transform(geometry);
+
+			EnvelopedGeometry enveloped = transform
+					.transformWithEnvelope(geometry);
+			TestCase.assertEquals(expected, enveloped.getGeometry());
+			TestCase.assertEquals(
+					GeometryEnvelopeBuilder.buildEnvelope(expected),
+					enveloped.getEnvelope());
+			TestCase.assertFalse(enveloped.hasPartEnvelopes());
+			TestCase.assertTrue(enveloped.getPartEnvelopes().isEmpty());
+
+			enveloped = transform.transformWithEnvelope(geometry, true);
+			TestCase.assertEquals(expected, enveloped.getGeometry());
+			TestCase.assertEquals(
+					GeometryEnvelopeBuilder.buildEnvelope(expected),
+					enveloped.getEnvelope());
+			TestCase.assertTrue(enveloped.hasPartEnvelopes());
+		}
+
+		EnvelopedGeometry enveloped = transform
+				.transformWithEnvelope(multiPolygon, true);
+		MultiPolygon projected = (MultiPolygon) enveloped.getGeometry();
+		TestCase.assertEquals(2, enveloped.getPartEnvelopes().size());
+		for (int i = 0; i < projected.numPolygons(); i++) {
+			TestCase.assertEquals(
+					GeometryEnvelopeBuilder
+							.buildEnvelope(projected.getPolygon(i)),
+					enveloped.getPartEnvelope(i));
+		}
+		GeometryEnvelope envelope = enveloped.getEnvelope();
+		TestCase.assertEquals(-5.0, envelope.getMinZ());
+		TestCase.assertEquals(7.0, envelope.getMaxZ());
+		TestCase.assertEquals(1.0, envelope.getMinM());
+		TestCase.assertEquals(6.0, envelope.getMaxM());
+
+		enveloped = transform.transformWithEnvelope(new MultiPolygon(), true);
+		TestCase.assertNull(enveloped.getEnvelope());
+		TestCase.assertTrue(enveloped.getPartEnvelopes().isEmpty());
+
+	}
+
+	/**
+	 * Test bulk transforms with failed coordinates
+	 */
+	@Test
+	public void testBulkTransform() {
+
+		GeometryTransform transform = GeometryTransform.create(
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM,
+				ProjectionConstants.AUTHORITY_EPSG, 32633);
+
+		double[] x = new double[] { 15.0, Double.NaN, 16.0, 14.0 };
+		double[] y = new double[] { 45.0, 45.0, 46.0, 44.0 };
+		double[] z = new double[] { 1.0, 2.0, 3.0, 4.0 };
+		double[] toX = new double[x.length];
+		double[] toY = new double[x.length];
+		double[] toZ = new double[x.length];
+
+		TransformFailures failures = transform.transform(x, y, z, toX, toY,
+				toZ);
+		TestCase.assertEquals(4, failures.size());
+		TestCase.assertTrue(failures.hasFailures());
+		TestCase.assertEquals(1, failures.count());
+		TestCase.assertTrue(failures.isFailed(1));
+		TestCase.assertEquals(1, failures.getIndices()[0]);
+		TestCase.assertTrue(Double.isNaN(toX[1]));
+		TestCase.assertTrue(Double.isNaN(toY[1]));
+		TestCase.assertTrue(Double.isNaN(toZ[1]));
+
+		for (int i : new int[] { 0, 2, 3 }) {
+			Point expected = transform
+					.transform(new Point(x[i], y[i], z[i]));
+			TestCase.assertEquals(expected.getX(), toX[i]);
+			TestCase.assertEquals(expected.getY(), toY[i]);
+			TestCase.assertEquals(expected.getZ(), toZ[i]);
+		}
+
+		double[] fixedX = toX.clone();
+		failures.fill(fixedX, 0.0);
+		TestCase.assertEquals(0.0, fixedX[1]);
+		failures.copy(x, fixedX);
+		TestCase.assertTrue(Double.isNaN(fixedX[1]));
+
+		failures.fill(x, 15.5);
+		failures = transform.retransform(x, y, z, toX, toY, toZ, failures);
+		TestCase.assertFalse(failures.hasFailures());
+		TestCase.assertTrue(Double.isFinite(toX[1]));
+
+		GeometryTransform mercator = GeometryTransform.create(
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM,
+				ProjectionConstants.AUTHORITY_EPSG, 3395);
+
+		x = new double[] { 0.0, 10.0, 20.0, 30.0 };
+		y = new double[] { 90.0, 10.0, 100.0, 20.0 };
+		failures = mercator.transform(x, y);
+		TestCase.assertEquals(2, failures.count());
+		TestCase.assertTrue(failures.isFailed(0));
+		TestCase.assertTrue(failures.isFailed(2));
+		TestCase.assertEquals(0.0, x[0]);
+		TestCase.assertEquals(90.0, y[0]);
+		TestCase.assertEquals(20.0, x[2]);
+		TestCase.assertEquals(100.0, y[2]);
+		double[] expected = mercator.transform(10.0, 10.0);
+
+		double[] droppedX = x.clone();
+		double[] droppedY = y.clone();
+		TestCase.assertEquals(2, failures.drop(droppedX, droppedY, null));
+		TestCase.assertEquals(expected[0], droppedX[0]);
+		TestCase.assertEquals(expected[1], droppedY[0]);
+		TestCase.assertEquals(mercator.transform(30.0, 20.0)[0],
+				droppedX[1]);
+
+		failures.clamp(y, -85.0, 85.0);
+		TestCase.assertEquals(85.0, y[0]);
+		TestCase.assertEquals(85.0, y[2]);
+		failures = mercator.retransform(x, y, null, x, y, null, failures);
+		TestCase.assertFalse(failures.hasFailures());
+		TestCase.assertEquals(expected[0], x[1]);
+		TestCase.assertEquals(mercator.transform(0.0, 85.0)[1], y[0]);
+
+	}
+
+	/**
+	 * Test level of detail transforms simplifying to a resolution
+	 */
+	@Test
+	public void testResolution() {
+
+		GeometryTransform transform = GeometryTransform.create(
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM,
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WEB_MERCATOR);
+
+		LineString lineString = new LineString();
+		for (int i = 0; i <= 2000; i++) {
+			lineString.addPoint(new Point(-10.0 + i * 0.01,
+					60.0 + 5.0 * Math.sin(i / 400.0)));
+		}
+
+		LineString expected = transform.transform(lineString);
+
+		final int[] transforms = new int[1];
+		final int[] probes = new int[1];
+		GeometryTransform counting = new GeometryTransform(
+				transform.getFromProjection(), transform.getToProjection()) {
+			@Override
+			public void transform(ProjCoordinate from, ProjCoordinate to) {
+				transforms[0]++;
+				super.transform(from, to);
+			}
+
+			@Override
+			void probe(ProjCoordinate from, ProjCoordinate to) {
+				probes[0]++;
+				super.probe(from, to);
+			}
+		};
+
+		double resolution = 50000.0;
+		TestCase.assertFalse(transform.isSimplifying());
+		transform.setResolution(resolution);
+		TestCase.assertTrue(transform.isSimplifying());
+		TestCase.assertEquals(resolution, transform.getResolution());
+
+		LineString simplified = transform.transform(lineString);
+		counting.setResolution(resolution);
+		TestCase.assertEquals(simplified, counting.transform(lineString));
+
+		TestCase.assertTrue(simplified.numPoints() > 2);
+		TestCase.assertTrue(simplified.numPoints() < expected.numPoints());
+		TestCase.assertTrue(
+				transforms[0] + probes[0] < lineString.numPoints() / 4);
+		TestCase.assertTrue(probes[0] <= 2 * simplified.numPoints());
+
+		CoordinateCache cache = transform.enableCache();
+		TestCase.assertEquals(simplified, transform.transform(lineString));
+		TestCase.assertEquals(transforms[0], cache.getLookups());
+		transform.setCache(null);
+
+		transforms[0] = 0;
+		probes[0] = 0;
+		counting.setResolution(1.0);
+		LineString detailed = counting.transform(lineString);
+		TestCase.assertEquals(lineString.numPoints(), detailed.numPoints());
+		TestCase.assertEquals(lineString.numPoints(), transforms[0]);
+		TestCase.assertTrue(
+				probes[0] + transforms[0] < lineString.numPoints() * 1.01);
+		TestCase.assertEquals(expected.startPoint(), simplified.startPoint());
+		TestCase.assertEquals(expected.endPoint(), simplified.endPoint());
+
+		assertSimplified(expected, simplified, resolution);
+
+		LineString meridian = new LineString();
+		for (int i = 0; i <= 8400; i++) {
+			meridian.addPoint(new Point(0.0, i * 0.01));
+		}
+		transform.setResolution(0.0);
+		LineString expectedMeridian = transform.transform(meridian);
+		transform.setResolution(1000000.0);
+		assertSimplified(expectedMeridian, transform.transform(meridian),
+				1000000.0);
+		transform.setResolution(resolution);
+
+		Polygon polygon = new Polygon();
+		LineString ring = new LineString();
+		for (int i = 0; i < 360; i++) {
+			ring.addPoint(new Point(Math.cos(Math.toRadians(i)),
+					Math.sin(Math.toRadians(i))));
+		}
+		ring.addPoint(new Point(ring.startPoint()));
+		polygon.addRing(ring);
+
+		LineString simplifiedRing = transform.transform(polygon)
+				.getExteriorRing();
+		TestCase.assertTrue(simplifiedRing.numPoints() >= 4);
+		TestCase.assertTrue(simplifiedRing.numPoints() < ring.numPoints());
+		TestCase.assertEquals(simplifiedRing.startPoint(),
+				simplifiedRing.endPoint());
+
+		transforms[0] = 0;
+		counting.setResolution(1000000.0);
+		Polygon minimal = counting.transform(polygon);
+		TestCase.assertEquals(1, minimal.numRings());
+		LineString minimalRing = minimal.getExteriorRing();
+		TestCase.assertEquals(4, minimalRing.numPoints());
+		TestCase.assertEquals(minimalRing.startPoint(),
+				minimalRing.endPoint());
+		TestCase.assertEquals(transform.transform(ring.getPoint(180)),
+				minimalRing.getPoint(1));
+		TestCase.assertTrue(transforms[0] <= 4);
+		TestCase.assertTrue(probes[0] <= 8);
+
+		transform.setResolution(0.0);
+		TestCase.assertEquals(expected, transform.transform(lineString));
+
+	}
+
+	/**
+	 * Test tile grid envelope transforms
+	 */
+	@Test
+	public void testTileGrid() {
+
+		GeometryTransform transform = GeometryTransform.create(
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WEB_MERCATOR,
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM);
+
+		double halfWorld = ProjectionConstants.WEB_MERCATOR_HALF_WORLD_WIDTH;
+		TileGrid grid = new TileGrid(new GeometryEnvelope(-halfWorld,
+				-halfWorld, halfWorld, halfWorld), 1, 1, 0, 20);
+		TestCase.assertEquals(8, grid.getMatrixWidth(3));
+		TestCase.assertEquals(halfWorld / 4, grid.getTileWidth(3));
+
+		TileGridEnvelopes envelopes = transform.transform(grid, 3);
+		TestCase.assertEquals(64, envelopes.size());
+		TestCase.assertEquals(81, envelopes.numNodes());
+		TestCase.assertEquals(0, envelopes.getDensify());
+
+		List<GeometryEnvelope> envelopeList = envelopes.getEnvelopes();
+		TestCase.assertEquals(64, envelopeList.size());
+		for (int row = 0; row < 8; row++) {
+			for (int column = 0; column < 8; column++) {
+				GeometryEnvelope expected = transform
+						.transform(grid.getEnvelope(column, row, 3));
+				TestCase.assertEquals(expected,
+						envelopes.getEnvelope(column, row));
+				TestCase.assertEquals(expected,
+						envelopeList.get(row * 8 + column));
+			}
+		}
+
+		TestCase.assertEquals(-180.0, envelopes.getEnvelope(0, 0).getMinX(),
+				0.0000001);
+		TestCase.assertEquals(ProjectionConstants.WEB_MERCATOR_MAX_LAT_RANGE,
+				envelopes.getEnvelope(0, 0).getMaxY(), 0.0000001);
+
+		GeometryEnvelope bounds = new GeometryEnvelope(1000000.0, 2000000.0,
+				1500000.0, 2600000.0);
+		TileGrid seedGrid = new TileGrid(new GeometryEnvelope(-halfWorld,
+				-halfWorld, halfWorld, halfWorld), 1, 1, 0, 12);
+		List<TileGridEnvelopes> zoomEnvelopes = transform.transform(seedGrid,
+				bounds, 0);
+		TestCase.assertEquals(13, zoomEnvelopes.size());
+		TileGridEnvelopes zoom12 = zoomEnvelopes.get(12);
+		TestCase.assertEquals(12, zoom12.getZoom());
+		TestCase.assertEquals(seedGrid.getTileColumn(1000000.0, 12),
+				zoom12.getMinColumn());
+		TestCase.assertEquals(seedGrid.getMaxTileColumn(1500000.0, 12),
+				zoom12.getMaxColumn());
+		TestCase.assertEquals(seedGrid.getTileRow(2600000.0, 12),
+				zoom12.getMinRow());
+		TestCase.assertEquals(seedGrid.getMaxTileRow(2000000.0, 12),
+				zoom12.getMaxRow());
+		for (int i = 0; i < zoom12.size(); i += 97) {
+			GeometryEnvelope envelope = zoom12.getEnvelope(i);
+			int column = zoom12.getMinColumn() + i % zoom12.numColumns();
+			int row = zoom12.getMinRow() + i / zoom12.numColumns();
+			TestCase.assertEquals(
+					transform.transform(seedGrid.getEnvelope(column, row, 12)),
+					envelope);
+		}
+
+		TestCase.assertEquals(1, seedGrid.getTileColumn(0.0, 1));
+		TestCase.assertEquals(0, seedGrid.getMaxTileColumn(0.0, 1));
+		TestCase.assertEquals(1, seedGrid.getTileRow(0.0, 1));
+		TestCase.assertEquals(0, seedGrid.getMaxTileRow(0.0, 1));
+		TileGridEnvelopes edgeEnvelopes = transform.transform(seedGrid,
+				new GeometryEnvelope(0.0, 0.0, halfWorld / 2, halfWorld / 2),
+				0).get(2);
+		TestCase.assertEquals(2, edgeEnvelopes.getMinColumn());
+		TestCase.assertEquals(2, edgeEnvelopes.getMaxColumn());
+		TestCase.assertEquals(1, edgeEnvelopes.getMinRow());
+		TestCase.assertEquals(1, edgeEnvelopes.getMaxRow());
+		TestCase.assertEquals(1, transform
+				.transform(seedGrid, new GeometryEnvelope(0.0, 0.0, 0.0, 0.0),
+						0)
+				.get(2).size());
+
+		TestCase.assertEquals(1 << 30,
+				new TileGrid(0.0, 0.0, 1.0, 1.0, 1, 1, 0, 30)
+						.getMatrixWidth(30));
+		for (int maxZoom : new int[] { 31, 63, 64 }) {
+			try {
+				new TileGrid(0.0, 0.0, 1.0, 1.0, 1, 1, 0, maxZoom);
+				TestCase.fail("Expected matrix size overflow at max zoom "
+						+ maxZoom);
+			} catch (SFException e) {
+				// Expected
+			}
+		}
+
+		GeometryTransform webMercator = GeometryTransform.create(
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM,
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WEB_MERCATOR);
+		TileGrid worldGrid = new TileGrid(
+				new GeometryEnvelope(-180.0, -90.0, 180.0, 90.0), 2, 1, 0, 0);
+		TileGridEnvelopes worldEnvelopes = webMercator.transform(worldGrid,
+				0);
+		GeometryEnvelope expectedWorld = webMercator
+				.transform(worldGrid.getEnvelope(0, 0, 0));
+		GeometryEnvelope worldEnvelope = worldEnvelopes.getEnvelope(0, 0);
+		TestCase.assertTrue(worldEnvelopes.isFailed(0, 0));
+		TestCase.assertEquals(expectedWorld.getMinX(), worldEnvelope.getMinX());
+		TestCase.assertEquals(expectedWorld.getMaxX(), worldEnvelope.getMaxX());
+		TestCase.assertEquals(expectedWorld.getMaxY(), worldEnvelope.getMaxY());
+		TestCase.assertTrue(Double.isNaN(worldEnvelope.getMinY()));
+		GeometryEnvelope densifiedWorld = webMercator
+				.transform(worldGrid, 0, 4).getEnvelope(0, 0);
+		TestCase.assertEquals(expectedWorld.getMinX(),
+				densifiedWorld.getMinX());
+		TestCase.assertTrue(Double.isFinite(densifiedWorld.getMinY()));
+		TestCase.assertFalse(envelopes.isFailed(0, 0));
+
+		GeometryTransform utm = GeometryTransform.create(
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM,
+				ProjectionConstants.AUTHORITY_EPSG, 32633);
+		TileGrid degreesGrid = new TileGrid(
+				new GeometryEnvelope(0.0, 40.0, 30.0, 60.0), 3, 2, 0, 2);
+		TileGridEnvelopes corners = utm.transform(degreesGrid, 0);
+		TileGridEnvelopes densified = utm.transform(degreesGrid, 0, 8);
+		TestCase.assertEquals(8, densified.getDensify());
+		TestCase.assertEquals(3 * 28 + 4 * 19, densified.numNodes());
+		for (int i = 0; i < densified.size(); i++) {
+			GeometryEnvelope envelope = densified.getEnvelope(i);
+			TestCase.assertTrue(envelope.contains(corners.getEnvelope(i)));
+		}
+		TestCase.assertTrue(densified.getEnvelope(1, 0).getMinY() < corners
+				.getEnvelope(1, 0).getMinY());
+
+		GeometryTransform polar = GeometryTransform.create(
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM,
+				ProjectionConstants.AUTHORITY_EPSG, 3031);
+		TileGrid polarGrid = new TileGrid(
+				new GeometryEnvelope(-180.0, -90.0, 180.0, -60.0), 4, 1, 0,
+				0);
+		int densify = 16;
+		int segments = densify + 1;
+		TileGridEnvelopes polarEnvelopes = polar.transform(polarGrid, 0,
+				densify);
+		for (int column = 0; column < 4; column++) {
+			GeometryEnvelope expected = null;
+			for (int i = 0; i <= segments; i++) {
+				double fraction = i / (double) segments;
+				double x = polarGrid.getX(column + fraction, 0);
+				double y = polarGrid.getY(fraction, 0);
+				Point[] nodes = new Point[] {
+						new Point(x, polarGrid.getY(0, 0)),
+						new Point(x, polarGrid.getY(1, 0)),
+						new Point(polarGrid.getX(column, 0), y),
+						new Point(polarGrid.getX(column + 1, 0), y) };
+				for (Point node : nodes) {
+					Point projected = polar.transform(node);
+					if (expected == null) {
+						expected = new GeometryEnvelope(projected.getX(),
+								projected.getY(), projected.getX(),
+								projected.getY());
+					} else {
+						expected.setMinX(
+								Math.min(expected.getMinX(), projected.getX()));
+						expected.setMinY(
+								Math.min(expected.getMinY(), projected.getY()));
+						expected.setMaxX(
+								Math.max(expected.getMaxX(), projected.getX()));
+						expected.setMaxY(
+								Math.max(expected.getMaxY(), projected.getY()));
+					}
+				}
+			}
+			GeometryEnvelope envelope = polarEnvelopes.getEnvelope(column, 0);
+			TestCase.assertEquals(expected.getMinX(), envelope.getMinX(),
+					0.000001);
+			TestCase.assertEquals(expected.getMinY(), envelope.getMinY(),
+					0.000001);
+			TestCase.assertEquals(expected.getMaxX(), envelope.getMaxX(),
+					0.000001);
+			TestCase.assertEquals(expected.getMaxY(), envelope.getMaxY(),
+					0.000001);
+			TestCase.assertTrue(envelope.getXRange() > 3000000.0);
+			TestCase.assertTrue(envelope.getYRange() > 3000000.0);
+		}
+
+	}
+
+	/**
+	 * Test lazy projected geometry views
+	 */
+	@Test
+	public void testTransformLazy() {
+
+		GeometryTransform transform = GeometryTransform.create(
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM,
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WEB_MERCATOR);
+
+		MultiPolygon multiPolygon = new MultiPolygon(true, false);
+		for (int i = 0; i < 3; i++) {
+			Polygon polygon = new Polygon(true, false);
+			LineString ring = new LineString(true, false);
+			for (int j = 0; j < 100; j++) {
+				double angle = Math.toRadians(j * 3.6);
+				ring.addPoint(new Point(i * 10.0 + Math.cos(angle),
+						Math.sin(angle), (double) j));
+			}
+			ring.addPoint(new Point(ring.startPoint()));
+			polygon.addRing(ring);
+			multiPolygon.addPolygon(polygon);
+		}
+
+		MultiPolygon expected = transform.transform(multiPolygon);
+
+		CoordinateCache cache = transform.enableCache();
+		MultiPolygon lazy = (MultiPolygon) transform
+				.transformLazy(multiPolygon);
+		TestCase.assertEquals(GeometryType.MULTIPOLYGON,
+				lazy.getGeometryType());
+		TestCase.assertTrue(lazy.hasZ());
+		TestCase.assertEquals(3, lazy.numPolygons());
+		TestCase.assertEquals(0, cache.getLookups());
+
+		LazyTransformList<Polygon> polygons = (LazyTransformList<Polygon>) lazy
+				.getPolygons();
+		TestCase.assertEquals(0, polygons.numTransformed());
+		Point point = lazy.getPolygon(1).getExteriorRing().getPoint(5);
+		TestCase.assertEquals(
+				expected.getPolygon(1).getExteriorRing().getPoint(5), point);
+		TestCase.assertEquals(1, cache.getLookups());
+		TestCase.assertEquals(1, polygons.numTransformed());
+		TestCase.assertFalse(polygons.isTransformed(0));
+		TestCase.assertTrue(polygons.isTransformed(1));
+		TestCase.assertFalse(polygons.isTransformed());
+
+		LazyTransformList<Point> points = (LazyTransformList<Point>) lazy
+				.getPolygon(1).getExteriorRing().getPoints();
+		TestCase.assertSame(point, points.get(5));
+		TestCase.assertEquals(1, points.numTransformed());
+
+		Point added = new Point(true, false, 1.0, 2.0);
+		added.setZ(3.0);
+		points.add(0, added);
+		TestCase.assertSame(added, points.get(0));
+		TestCase.assertSame(point, points.get(6));
+		TestCase.assertEquals(2, points.numTransformed());
+		points.remove(0);
+		TestCase.assertEquals(1, points.numTransformed());
+
+		long lookups = cache.getLookups();
+		TestCase.assertSame(point, points.set(5, point));
+		TestCase.assertEquals(lookups, cache.getLookups());
+		Point replaced = points.set(6, added);
+		TestCase.assertEquals(
+				expected.getPolygon(1).getExteriorRing().getPoint(6), replaced);
+		TestCase.assertEquals(lookups + 1, cache.getLookups());
+		TestCase.assertEquals(2, points.numTransformed());
+		TestCase.assertSame(added, points.get(6));
+		TestCase.assertEquals(lookups + 1, cache.getLookups());
+		points.set(6, replaced);
+
+		try {
+			points.set(6, null);
+			TestCase.fail("Null projected geometry was set");
+		} catch (NullPointerException e) {
+			// Expected
+		}
+		try {
+			points.add(0, null);
+			TestCase.fail("Null projected geometry was added");
+		} catch (NullPointerException e) {
+			// Expected
+		}
+		TestCase.assertSame(replaced, points.get(6));
+		TestCase.assertEquals(expected.getPolygon(1).getExteriorRing()
+				.numPoints(), points.size());
+
+		LazyTransformList<Point> failing = new LazyTransformList<>(
+				Arrays.asList(new Point(1.0, 2.0)), source -> {
+					throw new SFException("Failed to transform");
+				});
+		try {
+			failing.set(0, added);
+			TestCase.fail("Failed transform replaced the geometry");
+		} catch (SFException e) {
+			// Expected
+		}
+		TestCase.assertFalse(failing.isTransformed(0));
+		TestCase.assertEquals(0, failing.numTransformed());
+
+		TestCase.assertEquals(expected, lazy);
+		TestCase.assertTrue(polygons.isTransformed());
+		TestCase.assertEquals(303, cache.getLookups());
+		transform.setCache(null);
+
+		GeometryCollection<Geometry> geometryCollection = new GeometryCollection<>();
+		geometryCollection.addGeometry(new Point(10.0, 20.0));
+		geometryCollection.addGeometry(createTriangle(new Point(0.0, 0.0),
+				new Point(1.0, 0.0), new Point(0.0, 1.0)));
+		Geometry lazyCollection = transform.transformLazy(geometryCollection);
+		TestCase.assertEquals(transform.transform(geometryCollection),
+				lazyCollection);
+		@SuppressWarnings("unchecked")
+		GeometryCollection<Geometry> typedCollection = (GeometryCollection<Geometry>) lazyCollection;
+		TestCase.assertEquals(GeometryType.TRIANGLE,
+				typedCollection.getGeometry(1).getGeometryType());
+
+	}
+
+	/**
+	 * Test preloading and warming up transforms
+	 *
+	 * @throws IOException
+	 *             upon failure to read the projection pairs
+	 */
+	@Test
+	public void testWarmUp() throws IOException {
+
+		String pairs = "# Service projection pairs\n" + "EPSG:4326 EPSG:3857\n"
+				+ "\n" + "  EPSG:3857\tEPSG:4326  \n" + "EPSG:4326 EPSG:32633\n";
+
+		GeometryTransformCache transformCache = new GeometryTransformCache(2);
+		TestCase.assertEquals(2, transformCache.getIterations());
+		TestCase.assertEquals(0, transformCache.size());
+
+		List<GeometryTransform> transforms = transformCache
+				.warmUp(new ByteArrayInputStream(
+						pairs.getBytes(StandardCharsets.UTF_8)));
+		TestCase.assertEquals(3, transforms.size());
+		TestCase.assertEquals(3, transformCache.size());
+
+		Projection wgs84 = ProjectionFactory.getProjection(
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM);
+		Projection webMercator = ProjectionFactory.getProjection(
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WEB_MERCATOR);
+		TestCase.assertTrue(transformCache.hasTransform(wgs84, webMercator));
+		TestCase.assertTrue(transformCache.hasTransform(webMercator, wgs84));
+		TestCase.assertSame(transforms.get(0),
+				transformCache.getTransform(wgs84, webMercator));
+		TestCase.assertSame(transforms.get(1),
+				transformCache.getTransform("EPSG:3857", "EPSG:4326"));
+		TestCase.assertSame(transforms.get(2),
+				transformCache.getTransform("EPSG:4326 EPSG:32633"));
+		TestCase.assertEquals(3, transformCache.size());
+
+		GeometryTransform transform = transforms.get(0);
+		Point point = new Point(12.5, -33.25);
+		double[] expected = transform.transform(12.5, -33.25);
+		TestCase.assertEquals(new Point(expected[0], expected[1]),
+				transform.transform(point));
+
+		CoordinateCache cache = transform.enableCache();
+		TestCase.assertSame(transform,
+				transformCache.warmUp("EPSG:4326 EPSG:3857"));
+		TestCase.assertSame(cache, transform.getCache());
+		TestCase.assertTrue(cache.isEmpty());
+
+		GeometryTransform copy = transform.copy();
+		TestCase.assertNotSame(transform, copy);
+		TestCase.assertEquals(transform.getFromProjection(),
+				copy.getFromProjection());
+		TestCase.assertEquals(transform.getToProjection(),
+				copy.getToProjection());
+		TestCase.assertNotNull(transform.getProjectionKernel());
+		TestCase.assertSame(transform.getProjectionKernel(),
+				copy.getProjectionKernel());
+		TestCase.assertFalse(copy.isCached());
+		copy.enableCache();
+		copy.setResolution(10.0);
+		copy.setProjectionKernelEnabled(false);
+		TestCase.assertSame(cache, transform.getCache());
+		TestCase.assertEquals(0.0, transform.getResolution());
+		TestCase.assertTrue(transform.isProjectionKernelEnabled());
+		TestCase.assertEquals(transform.transform(point),
+				copy.transform(point));
+		TestCase.assertEquals(10.0, copy.copy().getResolution());
+		TestCase.assertFalse(copy.copy().isProjectionKernelEnabled());
+		transform.setCache(null);
+
+		try {
+			GeometryTransformCache.parsePair("EPSG:4326");
+			TestCase.fail("Expected invalid projection pair");
+		} catch (SFException e) {
+			// Expected
+		}
+
+		try {
+			transformCache.setIterations(-1);
+			TestCase.fail("Expected invalid iterations");
+		} catch (SFException e) {
+			// Expected
+		}
+
+		transformCache.clear();
+		TestCase.assertEquals(0, transformCache.size());
+		TestCase.assertFalse(transformCache.hasTransform(wgs84, webMercator));
+
+		try {
+			transformCache.warmUp(Arrays.asList("EPSG:4326",
+					"EPSG:4326 EPSG:3857", "EPSG:3857 EPSG:4326 EPSG:3395"));
+			TestCase.fail("Expected failed projection pairs");
+		} catch (SFException e) {
+			TestCase.assertTrue(e.getMessage().contains("[EPSG:4326]"));
+			TestCase.assertTrue(e.getMessage()
+					.contains("[EPSG:3857 EPSG:4326 EPSG:3395]"));
+			TestCase.assertNotNull(e.getCause());
+			TestCase.assertEquals(1, e.getSuppressed().length);
+		}
+		TestCase.assertEquals(1, transformCache.size());
+		TestCase.assertTrue(transformCache.hasTransform(wgs84, webMercator));
+
+	}
+
+	/**
+	 * Test bulk transforms dispatched to projection kernels
+	 */
+	@Test
+	public void testProjectionKernels() {
+
+		Projection wgs84 = ProjectionFactory.getProjection(
+				ProjectionConstants.AUTHORITY_EPSG,
+				ProjectionConstants.EPSG_WORLD_GEODETIC_SYSTEM);
+		Projection equirectangular = ProjectionFactory.getProjection(
+				ProjectionConstants.AUTHORITY_EPSG, 4087,
+				"+proj=eqc +lat_ts=0 +lat_0=0 +lon_0=0 +x_0=0 +y_0=0 +datum=WGS84 +units=m +no_defs");
+
+		Projection[] projections = new Projection[] {
+				ProjectionFactory.getProjection(
+						ProjectionConstants.AUTHORITY_EPSG,
+						ProjectionConstants.EPSG_WEB_MERCATOR),
+				ProjectionFactory.getProjection(
+						ProjectionConstants.AUTHORITY_EPSG, 3395),
+				equirectangular };
+
+		int count = 1000;
+		for (Projection projection : projections) {
+
+			GeometryTransform transform = GeometryTransform.create(wgs84,
+					projection);
+			GeometryTransform inverse = transform.getInverseTransformation();
+			TestCase.assertTrue(transform.isProjectionKernelEnabled());
+			TestCase.assertTrue(transform.hasProjectionKernel());
+			TestCase.assertTrue(inverse.hasProjectionKernel());
+
+			double lon0 = Math.toDegrees(projection.getCrs().getProjection()
+					.getProjectionLongitude());
+			double[] x = new double[count];
+			double[] y = new double[count];
+			double[] z = new double[count];
+			for (int i = 0; i < count; i++) {
+				x[i] = lon0 - 5.0 + 10.0 * (i % 50) / 49.0;
+				y[i] = -80.0 + 160.0 * (i / 50) / 19.0;
+				z[i] = i;
+			}
+			x[1] = 200.0;
+			y[2] = Double.NaN;
+			y[3] = 100.0;
+
+			double[] kernelX = new double[count];
+			double[] kernelY = new double[count];
+			double[] kernelZ = new double[count];
+			TransformFailures kernelFailures = transform.transform(x, y, z,
+					kernelX, kernelY, kernelZ);
+
+			transform.setProjectionKernelEnabled(false);
+			TestCase.assertFalse(transform.isProjectionKernelEnabled());
+			double[] generalX = new double[count];
+			double[] generalY = new double[count];
+			double[] generalZ = new double[count];
+			TransformFailures generalFailures = transform.transform(x, y, z,
+					generalX, generalY, generalZ);
+
+			TestCase.assertTrue(kernelFailures.hasFailures());
+			TestCase.assertTrue(kernelFailures.isFailed(2));
+			TestCase.assertEquals(generalFailures.count(),
+					kernelFailures.count());
+			for (int i = 0; i < count; i++) {
+				TestCase.assertEquals(generalFailures.isFailed(i),
+						kernelFailures.isFailed(i));
+				if (!kernelFailures.isFailed(i)) {
+					TestCase.assertEquals(generalX[i], kernelX[i], 1.0e-6);
+					TestCase.assertEquals(generalY[i], kernelY[i], 1.0e-6);
+					TestCase.assertEquals(generalZ[i], kernelZ[i]);
+				}
+			}
+
+			double[] inverseX = kernelX.clone();
+			double[] inverseY = kernelY.clone();
+			kernelFailures.fill(inverseX, 0.0);
+			kernelFailures.fill(inverseY, 0.0);
+			double[] fromX = inverseX.clone();
+			double[] fromY = inverseY.clone();
+			TestCase.assertFalse(inverse.transform(inverseX, inverseY)
+					.hasFailures());
+			inverse.setProjectionKernelEnabled(false);
+			inverse.transform(fromX, fromY);
+			for (int i = 0; i < count; i++) {
+				TestCase.assertEquals(fromX[i], inverseX[i], 1.0e-9);
+				TestCase.assertEquals(fromY[i], inverseY[i], 1.0e-9);
+				if (i > 3) {
+					TestCase.assertEquals(x[i], inverseX[i], 1.0e-7);
+					TestCase.assertEquals(y[i], inverseY[i], 1.0e-7);
+				}
+			}
+		}
+
+		GeometryTransform cached = GeometryTransform.create(wgs84,
+				projections[0]);
+		cached.enableCache();
+		double[] x = new double[] { 10.0, 20.0 };
+		double[] y = new double[] { 30.0, 40.0 };
+		cached.transform(x, y);
+		TestCase.assertEquals(2, cached.getCache().size());
+
+		TestCase.assertFalse(GeometryTransform
+				.create(wgs84, ProjectionFactory.getProjection(
+						ProjectionConstants.AUTHORITY_EPSG, 27700))
+				.hasProjectionKernel());
+		TestCase.assertFalse(GeometryTransform
+				.create(wgs84, ProjectionFactory.getProjection(
+						ProjectionConstants.AUTHORITY_EPSG, 3031))
+				.hasProjectionKernel());
+		TestCase.assertFalse(GeometryTransform
+				.create(wgs84, ProjectionFactory.getProjection(
+						ProjectionConstants.AUTHORITY_EPSG, 32633))
+				.hasProjectionKernel());
+		TestCase.assertFalse(GeometryTransform
+				.create(projections[0], projections[1]).hasProjectionKernel());
+
+	}
+
+	/**
+	 * Assert every vertex dropped from the simplified line string is within
+	 * the resolution of its preceding kept vertex
+	 *
+	 * @param expected
+	 *            projected line string without simplifying
+	 * @param simplified
+	 *            projected simplified line string
+	 * @param resolution
+	 *            resolution
+	 */
+	private static void assertSimplified(LineString expected,
+			LineString simplified, double resolution) {
+		int keptIndex = 0;
+		Point kept = simplified.getPoint(keptIndex);
+		for (Point point : expected.getPoints()) {
+			if (keptIndex + 1 < simplified.numPoints()
+					&& point.equals(simplified.getPoint(keptIndex + 1))) {
+				kept = simplified.getPoint(++keptIndex);
+			} else {
+				TestCase.assertTrue(Math.hypot(point.getX() - kept.getX(),
+						point.getY() - kept.getY()) < resolution);
+			}
+		}
+		TestCase.assertEquals(simplified.numPoints() - 1, keptIndex);
+	}
+
+	/**
+	 * Create a triangle from three points
+	 * 
+	 * @param point1
+	 *            first point
+	 * @param point2
+	 *            second point
+	 * @param point3
+	 *            third point
+	 * @return triangle
+	 */
+	private static Triangle createTriangle(Point point1, Point point2,
+			Point point3) {
+		LineString ring = new LineString(point1.hasZ(), point1.hasM());
+		ring.addPoint(point1);
+		ring.addPoint(point2);
+		ring.addPoint(point3);
+		ring.addPoint(new Point(point1));
+		Triangle triangle = new Triangle(point1.hasZ(), point1.hasM());
+		triangle.addRing(ring);
+		return triangle;
+	}
+
 }